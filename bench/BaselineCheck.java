@@ -0,0 +1,104 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the results of a JMH run with a baseline run, both saved with -rf csv
+ * A benchmark regressed when even the lowest time of its confidence interval is slower than the highest time of the baseline
+ * interval by more than the tolerance, so the noise of a run doesn't fail the build
+ *
+ * BaselineCheck results.csv baseline.csv [tolerance]
+ *
+ * The exit code is 1 when a benchmark regressed, the tolerance is 0.25 by default
+ */
+public class BaselineCheck {
+
+    /** The score of a benchmark and its error, in the unit of the run */
+    private static class Score {
+        final double score;
+        final double error;
+
+        Score(double score, double error) {
+            this.score = score;
+            this.error = error;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BaselineCheck results.csv baseline.csv [tolerance]");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.25;
+        Map<String, Score> results = read(args[0]);
+        Map<String, Score> baseline = read(args[1]);
+        int regressed = 0;
+        for (Map.Entry<String, Score> result : results.entrySet()) {
+            Score expected = baseline.get(result.getKey());
+            if (expected == null)
+                continue;
+            Score actual = result.getValue();
+            if (actual.score - actual.error > (expected.score + expected.error) * (1 + tolerance)) {
+                System.err.println(String.format("%s regressed: %.2f +- %.2f, baseline %.2f +- %.2f",
+                        result.getKey(), actual.score, actual.error, expected.score, expected.error));
+                regressed++;
+            }
+        }
+        System.out.println(String.format("%d benchmarks compared, %d regressed", results.size(), regressed));
+        if (regressed > 0)
+            System.exit(1);
+    }
+
+    /** @return the scores by benchmark, the name with its parameters, DiscoveryBenchmark.junit size=100 density=0.5 */
+    private static Map<String, Score> read(String file) throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8);
+        Map<String, Score> scores = new LinkedHashMap<>();
+        if (lines.isEmpty())
+            return scores;
+        List<String> header = split(lines.get(0));
+        int score = header.indexOf("Score");
+        int error = score + 1;
+        for (String line : lines.subList(1, lines.size())) {
+            List<String> columns = split(line);
+            if (columns.size() != header.size())
+                continue;
+            StringBuilder name = new StringBuilder(columns.get(0));
+            for (int k = 0; k < header.size(); k++) {
+                if (header.get(k).startsWith("Param: ") && !columns.get(k).isEmpty())
+                    name.append(' ').append(header.get(k).substring("Param: ".length())).append('=').append(columns.get(k));
+            }
+            String error_text = columns.get(error);
+            scores.put(name.toString(), new Score(parse(columns.get(score)), error_text.isEmpty() || error_text.equals("NaN") ? 0 : parse(error_text)));
+        }
+        return scores;
+    }
+
+    private static double parse(String number) {
+        return Double.parseDouble(number.replace(',', '.'));
+    }
+
+    /** @return the columns of a csv line, without their quotes */
+    private static List<String> split(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder column = new StringBuilder();
+        boolean is_quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                is_quoted = !is_quoted;
+            } else if (c == ',' && !is_quoted) {
+                columns.add(column.toString());
+                column.setLength(0);
+            } else {
+                column.append(c);
+            }
+        }
+        columns.add(column.toString());
+        return columns;
+    }
+}
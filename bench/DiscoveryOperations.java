@@ -0,0 +1,77 @@
+import benchmarks.Operations;
+
+import java.util.List;
+
+/** The operations the benchmarks under bench/benchmarks time, on the sources of the plugin */
+public class DiscoveryOperations implements Operations {
+
+    /** A scanned text and the tests found in it */
+    private static class Scanned {
+        final String text;
+        final LineScanner scanner;
+        final List<TestDescriptor> found;
+
+        Scanned(String text) {
+            this.text = text;
+            scanner = new LineScanner(text);
+            found = TestDiscovery.findAllTests(scanner);
+        }
+    }
+
+    @Override
+    public String generate(int tests, double suppressed, double junit, long seed) {
+        return TestCorpus.generate(tests, suppressed, junit, seed);
+    }
+
+    @Override
+    public Object scan(String text) {
+        return new Scanned(text);
+    }
+
+    @Override
+    public long lines(String text) {
+        LineScanner lines = new LineScanner(text);
+        long length = 0;
+        for (int i = 0; i < lines.getLineCount(); i++)
+            length += lines.getLine(i).length();
+        return length;
+    }
+
+    @Override
+    public boolean prefilter(String text) {
+        return TestDiscovery.mayContainTests(text);
+    }
+
+    @Override
+    public List<?> espresso(String text) {
+        return TestDiscovery.findTests(new LineScanner(text), new EspressoTestParser(), null);
+    }
+
+    @Override
+    public List<?> junit(String text) {
+        return TestDiscovery.findTests(new LineScanner(text), new JUnitTestParser(), null);
+    }
+
+    @Override
+    public List<?> chunked(String text, int chunks) {
+        return ParallelTestScan.findTests(text, JUnitTestParser::new, chunks, null);
+    }
+
+    @Override
+    public long filter(Object scanned, String query) {
+        TestFilter filter = TestFilter.compile(query);
+        long matches = 0;
+        for (TestDescriptor test : ((Scanned) scanned).found) {
+            if (filter.matches(test.getName()))
+                matches++;
+        }
+        return matches;
+    }
+
+    @Override
+    public String diff(Object scanned) {
+        Scanned tests = (Scanned) scanned;
+        List<SuppressEdit> edits = SuppressEdit.select(tests.scanner, tests.found, test -> test.getName().hashCode() % 2 == 0);
+        return SuppressEdit.apply(tests.text, edits);
+    }
+}
@@ -0,0 +1,74 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures how many bytes every test of a project wide catalog takes
+ * The catalog is kept the way the list used to keep it, a name string for every test and a map from the name to its descriptor,
+ * and then in a TestTable. The heap is measured after a full collection with the catalog still reachable
+ *
+ * MemoryBenchmark [tests per class]
+ */
+public class MemoryBenchmark {
+
+    private static final int[] SIZES = {1000, 10000, 100000};
+
+    //keeps the catalog reachable while the heap is measured
+    private static volatile Object sink;
+
+    public static void main(String[] args) {
+        int per_class = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        for (int size : SIZES) {
+            List<TestDescriptor> found = generate(size, per_class);
+
+            long strings = measureStrings(found);
+            TestTable table = TestTable.of(found);
+            long packed = measureTable(found);
+            System.out.println(String.format("%-8d strings %7.1f bytes/test   table %7.1f bytes/test (estimated %.1f)",
+                    size, (double) strings / size, (double) packed / size, (double) table.getBytes() / size));
+        }
+    }
+
+    /** @return the bytes taken by a name string for every test and a map from the name to its descriptor */
+    private static long measureStrings(List<TestDescriptor> found) {
+        long before = usedMemory();
+        List<String> names = new ArrayList<>();
+        Map<String, TestDescriptor> descriptors = new HashMap<>();
+        for (TestDescriptor test : found) {
+            String name = new String(test.getName());
+            names.add(name);
+            descriptors.put(name, new TestDescriptor(name, test.getOffset(), test.getSuppressOffset()));
+        }
+        sink = new Object[]{names, descriptors};
+        long bytes = usedMemory() - before;
+        sink = null;
+        return bytes;
+    }
+
+    /** @return the bytes taken by a TestTable of the tests */
+    private static long measureTable(List<TestDescriptor> found) {
+        long before = usedMemory();
+        sink = TestTable.of(found);
+        long bytes = usedMemory() - before;
+        sink = null;
+        return bytes;
+    }
+
+    /** @return tests named like the catalog names them, Class_N.test_M, with every tenth one suppressed */
+    private static List<TestDescriptor> generate(int size, int per_class) {
+        List<TestDescriptor> found = new ArrayList<>(size);
+        for (int k = 0; k < size; k++) {
+            String name = "FeatureClass" + (k / per_class) + "Test.test_" + (k % per_class) + "_checks_something";
+            found.add(new TestDescriptor(name, k * 120, k % 10 == 0 ? k * 120 - 12 : -1));
+        }
+        return found;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,42 @@
+import java.util.Random;
+
+/**
+ * Generates test classes to benchmark the discovery with
+ * Espresso and junit tests are mixed and some of them are suppressed, the rest of the lines look like test bodies
+ */
+public class TestCorpus {
+
+    private TestCorpus(){}
+
+    /**
+     * @param tests the number of test methods
+     * @param suppressed the fraction of the tests that are suppressed, from 0 to 1
+     * @param junit the fraction of the tests that are junit tests instead of espresso tests, from 0 to 1
+     * @param seed the seed of the random choices, the same seed generates the same class
+     * @return the source of the class
+     */
+    public static String generate(int tests, double suppressed, double junit, long seed) {
+        Random random = new Random(seed);
+        StringBuilder builder = new StringBuilder(tests * 200);
+        builder.append("package com.example.generated;\n\n")
+                .append("import org.junit.Test;\n")
+                .append("import android.test.suppress.Suppress;\n\n")
+                .append("public class GeneratedTest extends ActivityInstrumentationTestCase2<MainActivity> {\n\n");
+        for (int i = 0; i < tests; i++) {
+            boolean is_junit = random.nextDouble() < junit;
+            if (random.nextDouble() < suppressed)
+                builder.append("    @Suppress\n");
+            if (is_junit)
+                builder.append("    @Test\n    public void checks").append(i).append("() {\n");
+            else
+                builder.append("    public void test_").append(i).append("() {\n");
+            int body = 2 + random.nextInt(8);
+            for (int j = 0; j < body; j++) {
+                builder.append("        onView(withId(R.id.view_").append(random.nextInt(1000))
+                        .append(")).perform(typeText(\"value ").append(j).append("\"));\n");
+            }
+            builder.append("    }\n\n");
+        }
+        return builder.append("}\n").toString();
+    }
+}
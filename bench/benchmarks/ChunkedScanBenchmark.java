@@ -0,0 +1,72 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scans a generated class past 50k lines sequentially and in chunks on pools of 1, 2, 4 and 8 threads
+ * Other thread counts are given with -p threads=..., the speedup only grows up to the number of cores
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ChunkedScanBenchmark {
+
+    private static final int SIZE = 10000;
+
+    private final Operations operations = Operations.load();
+    private String text;
+
+    /** The pool the chunks are scanned on, only the chunked scan depends on the number of threads */
+    @State(Scope.Benchmark)
+    public static class Pool {
+        @Param({"1", "2", "4", "8"})
+        public int threads;
+
+        private ForkJoinPool pool;
+
+        @Setup
+        public void start() {
+            pool = new ForkJoinPool(threads);
+        }
+
+        @TearDown
+        public void stop() {
+            pool.shutdown();
+        }
+    }
+
+    @Setup
+    public void generate() {
+        text = operations.generate(SIZE, 0.2, 0.5, SIZE);
+    }
+
+    @Benchmark
+    public List<?> sequential() {
+        return operations.junit(text);
+    }
+
+    @Benchmark
+    public List<?> chunked(Pool pool) throws InterruptedException, ExecutionException {
+        int chunks = pool.threads * 2;
+        return pool.pool.submit(() -> operations.chunked(text, chunks)).get();
+    }
+}
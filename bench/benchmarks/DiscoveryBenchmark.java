@@ -0,0 +1,81 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the discovery against generated test classes of different sizes and suppression densities
+ * The prefilter is timed on the same classes, it finds a marker on their first test so it also tells what a hit costs
+ * See ChunkedScanBenchmark for the scan in chunks and LineScanBenchmark for reading the lines of a document
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DiscoveryBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    @Param({"0", "0.5"})
+    public double density;
+
+    private final Operations operations = Operations.load();
+    private String text;
+    private Object scanned;
+
+    @Setup
+    public void generate() {
+        text = operations.generate(size, density, 0.5, size);
+        scanned = operations.scan(text);
+    }
+
+    @Benchmark
+    public long lines() {
+        return operations.lines(text);
+    }
+
+    @Benchmark
+    public boolean prefilter() {
+        return operations.prefilter(text);
+    }
+
+    @Benchmark
+    public List<?> espresso() {
+        return operations.espresso(text);
+    }
+
+    @Benchmark
+    public List<?> junit() {
+        return operations.junit(text);
+    }
+
+    @Benchmark
+    public long filter_text() {
+        return operations.filter(scanned, "test_1");
+    }
+
+    @Benchmark
+    public long filter_regex() {
+        return operations.filter(scanned, "^(test_|checks)\\d*7$");
+    }
+
+    @Benchmark
+    public String diff() {
+        return operations.diff(scanned);
+    }
+}
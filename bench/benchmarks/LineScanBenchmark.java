@@ -0,0 +1,77 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads every line of 1k to 100k line texts with getDocumentLine, which the selectors used before,
+ * and through the line table of LineScanner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class LineScanBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int lines;
+
+    private final Operations operations = Operations.load();
+    private String text;
+
+    @Setup
+    public void generate() {
+        text = firstLines(operations.generate(lines / 5, 0.2, 0.5, lines), lines);
+    }
+
+    @Benchmark
+    public long document_line() {
+        long length = 0;
+        int offset = 0;
+        String line;
+        while ((line = getDocumentLine(text, offset)) != null) {
+            length += line.length();
+            offset += line.length() + 1;
+        }
+        return length;
+    }
+
+    @Benchmark
+    public long line_table() {
+        return operations.lines(text);
+    }
+
+    /** @return the first count lines of the text, each one ending with its line break */
+    private static String firstLines(String text, int count) {
+        int end = 0;
+        for (int line = 0; line < count && end < text.length(); line++)
+            end = text.indexOf('\n', end) + 1;
+        return text.substring(0, end);
+    }
+
+    /** The old TestSelector.getDocumentLine, Document.getText(TextRange) being a substring of the text */
+    private static String getDocumentLine(String text, int start) {
+        int end = start + 1;
+        String s;
+        try {
+            while ((s = text.substring(start, end)).charAt(s.length() - 1) != '\n')
+                end++;
+            return s.substring(0, s.length() - 1);
+        } catch (IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+}
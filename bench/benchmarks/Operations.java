@@ -0,0 +1,44 @@
+package benchmarks;
+
+import java.util.List;
+
+/**
+ * What the benchmarks time, implemented by DiscoveryOperations next to the sources of the plugin
+ * The plugin is in the default package, which a JMH benchmark can't be in nor import, so the benchmarks reach it through here
+ * Every benchmark calls a single implementation, so the calls are inlined like direct ones
+ */
+public interface Operations {
+
+    /** @return the operations implemented by DiscoveryOperations */
+    static Operations load() {
+        try {
+            return (Operations) Class.forName("DiscoveryOperations").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** @return the source of a generated test class, see TestCorpus */
+    String generate(int tests, double suppressed, double junit, long seed);
+
+    /** @return the text with the tests found in it, what filter and diff work on */
+    Object scan(String text);
+
+    /** @return the length of every line read through the line table of LineScanner */
+    long lines(String text);
+
+    boolean prefilter(String text);
+
+    List<?> espresso(String text);
+
+    List<?> junit(String text);
+
+    /** Must be called from the fork join pool the chunks are scanned on */
+    List<?> chunked(String text, int chunks);
+
+    /** @return how many of the tests found by scan match the query of the search field */
+    long filter(Object scanned, String query);
+
+    /** @return the text of scan with every other test suppressed or unsuppressed */
+    String diff(Object scanned);
+}
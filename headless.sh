@@ -0,0 +1,42 @@
+#!/bin/sh
+# Builds and checks the part of the plugin that doesn't depend on the IDE, e.g. on CI
+# The plugin itself is built by the IDE from TestSelector.iml, this only needs a JDK 8 or newer
+#
+# ./headless.sh test    compiles the sources the tests under test/ use and runs the tests
+#                       JUNIT_CLASSPATH has to name the junit 4 and hamcrest jars, like the ones in the lib folder of the IDE
+# ./headless.sh bench [jmh options]
+#                       builds the JMH benchmarks under bench/ with Maven, runs them with the options and saves the results
+#                       to out/headless/bench.csv, then runs MemoryBenchmark
+#                       with BASELINE naming the results of an earlier run the exit code is 1 when a benchmark got slower
+#                       than TOLERANCE, 0.25 by default, see BaselineCheck
+set -e
+cd "$(dirname "$0")"
+OUT=out/headless
+
+tests() {
+    if [ -z "$JUNIT_CLASSPATH" ]; then
+        echo "JUNIT_CLASSPATH has to name the junit 4 and hamcrest jars" >&2
+        exit 2
+    fi
+    rm -rf "$OUT/test"
+    mkdir -p "$OUT/test"
+    # only the classes the tests use are compiled from src, none of them needs the IDE
+    javac -encoding UTF-8 -d "$OUT/test" -sourcepath src -cp "$JUNIT_CLASSPATH" test/*.java
+    java -cp "$OUT/test:$JUNIT_CLASSPATH" org.junit.runner.JUnitCore $(ls test | sed -n 's/^\(.*Test\)\.java$/\1/p')
+}
+
+benchmarks() {
+    mkdir -p "$OUT"
+    mvn -B -q -f bench/pom.xml package
+    java -jar bench/target/benchmarks.jar -rf csv -rff "$OUT/bench.csv" "$@"
+    java -cp bench/target/benchmarks.jar MemoryBenchmark
+    if [ -n "$BASELINE" ]; then
+        java -cp bench/target/benchmarks.jar BaselineCheck "$OUT/bench.csv" "$BASELINE" "${TOLERANCE:-0.25}"
+    fi
+}
+
+case "$1" in
+    test) tests ;;
+    bench) shift; benchmarks "$@" ;;
+    *) echo "usage: ./headless.sh test|bench [jmh options]" >&2; exit 2 ;;
+esac
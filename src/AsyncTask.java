@@ -1,16 +1,49 @@
+import com.intellij.openapi.application.ApplicationManager;
+
+import javax.swing.*;
+import java.util.concurrent.Executor;
+
 /**
  * Async task
  * Used to create a thread with 3 states
- * onPreExecute: do before stuff you need done
- * doInBackground: do the stuff
- * onPostExecute: do after the stuff you need done
+ * onPreExecute: do before stuff you need done (runs on the thread calling execute)
+ * doInBackground: do the stuff (runs on a pooled thread or the given executor)
+ * onPostExecute: do after the stuff you need done (runs on the swing thread)
+ * A cancelled task skips whatever states haven't started yet
  */
 public abstract class AsyncTask implements Runnable {
+    private volatile boolean is_cancelled = false;
+
+    /** Runs onPreExecute right away and the other states on a pooled thread */
+    public void execute() {
+        onPreExecute();
+        ApplicationManager.getApplication().executeOnPooledThread(this);
+    }
+
+    /** Runs onPreExecute right away and the other states on the executor */
+    public void execute(Executor executor) {
+        onPreExecute();
+        executor.execute(this);
+    }
+
     @Override
     public void run() {
-        onPreExecute();
+        if (isCancelled())
+            return;
         doInBackground();
-        onPostExecute();
+        SwingUtilities.invokeLater(() -> {
+            if (!isCancelled())
+                onPostExecute();
+        });
+    }
+
+    /** Stops the task, a running doInBackground should check isCancelled and return early */
+    public void cancel() {
+        is_cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return is_cancelled;
     }
 
     protected abstract void onPreExecute();
@@ -0,0 +1,111 @@
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+
+/**
+ * The kinds of tests the plugin knows out of the box
+ */
+public class BuiltinTestSelectors {
+
+    private static boolean contains(CharSequence text, String marker) {
+        return LineScanner.indexOf(text, marker, 0, text.length()) >= 0;
+    }
+
+    public static class Espresso implements TestSelectorProvider {
+        @Override
+        public String getName() {
+            return "Espresso";
+        }
+
+        @Override
+        public boolean matches(VirtualFile file, CharSequence text) {
+            return contains(text, "test_");
+        }
+
+        @Override
+        public TestSelector createSelector(TestListModel tests_model, HintTextField search_field, Project project) {
+            return new TestSelectorEspresso(tests_model, search_field, project);
+        }
+    }
+
+    public static class JUnit4 implements TestSelectorProvider {
+        @Override
+        public String getName() {
+            return "Junit";
+        }
+
+        @Override
+        public boolean matches(VirtualFile file, CharSequence text) {
+            return contains(text, "org.junit.Test") || contains(text, "org.junit.*");
+        }
+
+        @Override
+        public TestSelector createSelector(TestListModel tests_model, HintTextField search_field, Project project) {
+            return new TestSelectorJUnit(tests_model, search_field, project);
+        }
+    }
+
+    public static class JUnit5 extends JUnit4 {
+        @Override
+        public String getName() {
+            return "Junit 5";
+        }
+
+        @Override
+        public boolean matches(VirtualFile file, CharSequence text) {
+            return contains(text, "org.junit.jupiter");
+        }
+
+        @Override
+        public TestSelector createSelector(TestListModel tests_model, HintTextField search_field, Project project) {
+            return new TestSelectorJUnit(tests_model, search_field, project, true);
+        }
+    }
+
+    public static class Robolectric extends JUnit4 {
+        @Override
+        public String getName() {
+            return "Robolectric";
+        }
+
+        @Override
+        public boolean matches(VirtualFile file, CharSequence text) {
+            return contains(text, "org.robolectric");
+        }
+    }
+
+    /** Only used when picked by the user */
+    public static class Psi implements TestSelectorProvider {
+        @Override
+        public String getName() {
+            return "Junit (PSI)";
+        }
+
+        @Override
+        public boolean matches(VirtualFile file, CharSequence text) {
+            return false;
+        }
+
+        @Override
+        public TestSelector createSelector(TestListModel tests_model, HintTextField search_field, Project project) {
+            return new TestSelectorPsi(tests_model, search_field, project);
+        }
+    }
+
+    /** Only used when picked by the user */
+    public static class ProjectTests implements TestSelectorProvider {
+        @Override
+        public String getName() {
+            return "Project";
+        }
+
+        @Override
+        public boolean matches(VirtualFile file, CharSequence text) {
+            return false;
+        }
+
+        @Override
+        public TestSelector createSelector(TestListModel tests_model, HintTextField search_field, Project project) {
+            return new TestSelectorProject(tests_model, search_field, project);
+        }
+    }
+}
@@ -6,4 +6,41 @@ public class Constants {
     public static final String SEARCH_HINT = "Search tests...";
     public static final String DESC_LABEL = "Choose the tests you want to run: ";
     public static final String NO_RESULTS = "No tests to show :(";
+    public static final String CMD_SELECT_TESTS = "Select Tests";
+    public static final String AUTO_DETECT = "Auto";
+    public static final String BTN_PROFILES = "Profiles";
+    public static final String MENU_SAVE_PROFILE = "Save Selection as Profile...";
+    public static final String MENU_APPLY_PROFILE = "Apply";
+    public static final String MENU_DELETE_PROFILE = "Delete";
+    public static final String PROFILE_NAME = "Profile name:";
+    public static final String CMD_APPLY_PROFILE = "Apply Test Profile";
+    public static final String NOTIFICATION_GROUP = "Test Selector";
+    public static final String MSG_PROFILE_APPLIED = "Profile %s applied: %d edits in %d files, %d ms";
+    public static final String MSG_PROFILE_SELECTED = "Profile %s selected for the run configuration: %d tests changed in %d classes, %d ms";
+    public static final String CHK_KEEP_SOURCES = "Keep sources unchanged";
+    public static final String MSG_NO_RUN_FILTER = "The run configuration %s doesn't take test filters, the selection isn't passed to it";
+    public static final String MSG_NO_TESTS_TO_RUN = "No test is selected, the run configuration keeps its last test filter";
+    public static final String CHK_DIAGNOSTICS = "Show diagnostics";
+    public static final String BTN_DUMP_METRICS = "Dump to log";
+    public static final String BTN_RESET_METRICS = "Reset";
+    public static final String MSG_REFRESH_QUEUE = "refreshes running or waiting: %d%n";
+    public static final String MSG_INDEXING = "Tests can't be selected across the project while the IDE is indexing";
+    public static final String MENU_SELECT_AFFECTED = "Select Tests Affected by Changes";
+    public static final String CMD_SELECT_AFFECTED = "Select Affected Tests";
+    public static final String MSG_NO_AFFECTED = "No tests are affected by the changes";
+    public static final String MSG_AFFECTED_APPLIED = "%d tests affected by the changes selected: %d edits in %d files, %d ms";
+    public static final String MSG_AFFECTED_SHOWN = "%d tests affected by the changes, %d of them shown and selected";
+    public static final String MENU_SELECT_IN_BUDGET = "Select Tests Within a Time Budget...";
+    public static final String MENU_IMPORT_REPORTS = "Import Test Reports";
+    public static final String BUDGET_MINUTES = "Minutes the selected tests may take:";
+    public static final String MSG_INVALID_BUDGET = "%s isn't a number of minutes";
+    public static final String MSG_NO_HISTORY = "No test reports found, run the tests once so their durations are known";
+    public static final String MSG_REPORTS_IMPORTED = "%d new test reports imported, the durations of %d tests are known";
+    public static final String MSG_BUDGET_SELECTED = "%d of %d tests selected, about %s of %s";
+    public static final String MSG_NOTHING_FITS = "No test fits in %s, the selection was left as it is";
+    public static final String MENU_PLAN_SHARDS = "Split Selected Tests into Shards...";
+    public static final String SHARD_COUNT = "Number of devices:";
+    public static final String MSG_INVALID_SHARDS = "%s isn't a number of devices";
+    public static final String MSG_NO_SELECTED_TESTS = "No tests are selected";
+    public static final String MSG_SHARDS_PLANNED = "%d tests split into %d shards of about %s instead of %s, their filters were copied to the clipboard";
 }
@@ -0,0 +1,67 @@
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.ui.components.JBScrollPane;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.HierarchyEvent;
+
+/**
+ * Shows the metrics of the plugin and the refreshes of the project that are queued, refreshed every second while the panel is showing
+ * The timer only runs while the panel is showing, so it costs nothing while diagnostics are off or the tool window is hidden
+ */
+public class DiagnosticsPanel extends JPanel {
+
+    private static final Logger LOG = Logger.getInstance(DiagnosticsPanel.class);
+    private static final int REFRESH_DELAY = 1000;
+
+    private final JTextArea text = new JTextArea(8, 20);
+    private final Timer timer = new Timer(REFRESH_DELAY, e -> refresh());
+    private final RefreshScheduler scheduler;
+
+    /** @param scheduler the scheduler of the refreshes of the project */
+    public DiagnosticsPanel(RefreshScheduler scheduler) {
+        this.scheduler = scheduler;
+        setLayout(new BorderLayout());
+        text.setEditable(false);
+        text.setFont(new Font(Font.MONOSPACED, Font.PLAIN, text.getFont().getSize()));
+        JButton dump_btn = new JButton(Constants.BTN_DUMP_METRICS);
+        JButton reset_btn = new JButton(Constants.BTN_RESET_METRICS);
+        dump_btn.addActionListener((ActionEvent e) ->
+                        LOG.info("TestSelector metrics\n" + Metrics.format())
+        );
+        reset_btn.addActionListener((ActionEvent e) -> {
+            Metrics.reset();
+            refresh();
+        });
+        JPanel panel_btns = new JPanel(new GridLayout(1, 2));
+        panel_btns.add(dump_btn);
+        panel_btns.add(reset_btn);
+        add(new JBScrollPane(text));
+        add(panel_btns, BorderLayout.SOUTH);
+        //shown and hidden by the diagnostics checkbox and with the tool window
+        addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0)
+                updateTimer();
+        });
+    }
+
+    private void updateTimer() {
+        if (isShowing() && !timer.isRunning()) {
+            refresh();
+            timer.start();
+        } else if (!isShowing()) {
+            timer.stop();
+        }
+    }
+
+    private void refresh() {
+        text.setText(Metrics.format() + String.format(Constants.MSG_REFRESH_QUEUE, scheduler.getQueueDepth()));
+    }
+
+    @Override
+    public void removeNotify() {
+        timer.stop();
+        super.removeNotify();
+    }
+}
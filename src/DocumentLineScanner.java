@@ -0,0 +1,30 @@
+import com.intellij.openapi.editor.Document;
+
+/**
+ * Line iterator over a document
+ * Uses the document's line table, so no pass over the text is needed before scanning it
+ */
+public class DocumentLineScanner extends LineScanner {
+
+    private final Document document;
+
+    public DocumentLineScanner(Document document){
+        super(document.getCharsSequence(), document.getLineCount());
+        this.document = document;
+    }
+
+    @Override
+    public int getLineStartOffset(int line){
+        return document.getLineStartOffset(line);
+    }
+
+    @Override
+    public int getLineEndOffset(int line){
+        return document.getLineEndOffset(line);
+    }
+
+    @Override
+    public int getLineNumber(int offset){
+        return document.getLineNumber(offset);
+    }
+}
@@ -0,0 +1,28 @@
+/**
+ * Parses espresso tests, methods whose name starts with test_
+ * A test is suppressed when the line right above it has the @Suppress annotation
+ */
+public class EspressoTestParser extends TokenTestParser {
+
+    private int suppress_offset = -1;
+
+    @Override
+    protected TestDescriptor parseTokens(TestTokenizer tokens, CharSequence chars, int offset, int shift) {
+        if (tokens.getSuppress() >= 0) {
+            suppress_offset = tokens.getSuppress() + shift;
+        } else if (tokens.getEspressoStart() >= 0) {  //if test is exactly after suppress then test is suppressed else it is not
+            String name = chars.subSequence(tokens.getEspressoStart(), tokens.getEspressoEnd()).toString();
+            TestDescriptor test = new TestDescriptor(name, offset, suppress_offset);
+            suppress_offset = -1;
+            return test;
+        } else {
+            suppress_offset = -1;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean hasSameState(TestParser other) {
+        return other instanceof EspressoTestParser && ((EspressoTestParser) other).suppress_offset == suppress_offset;
+    }
+}
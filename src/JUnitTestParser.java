@@ -0,0 +1,53 @@
+/**
+ * Parses junit tests, void methods annotated with @Test
+ * Junit 4 tests have to be public void methods, junit 5 ones can have any visibility
+ * A test is suppressed when the line right above it has the @Suppress annotation
+ */
+public class JUnitTestParser extends TokenTestParser {
+
+    private final boolean is_junit5;
+    private int suppress_offset = -1;
+    private boolean is_test = false;
+
+    /** Parses junit 4 tests */
+    public JUnitTestParser() {
+        this(false);
+    }
+
+    /** @param is_junit5 true to parse junit 5 tests, which don't need to be public */
+    public JUnitTestParser(boolean is_junit5) {
+        this.is_junit5 = is_junit5;
+    }
+
+    @Override
+    protected TestDescriptor parseTokens(TestTokenizer tokens, CharSequence chars, int offset, int shift) {
+        if (tokens.getSuppress() >= 0) {
+            suppress_offset = tokens.getSuppress() + shift;
+        } else if (tokens.getTestAnnotation() >= 0) {
+            is_test = true;
+        } else if (getMethodStart(tokens) >= 0 && is_test) {
+            String name = chars.subSequence(getMethodStart(tokens), getMethodEnd(tokens)).toString();
+            TestDescriptor test = new TestDescriptor(name, offset, suppress_offset);
+            suppress_offset = -1;
+            is_test = false;
+            return test;
+        } else {
+            suppress_offset = -1;
+        }
+        return null;
+    }
+
+    private int getMethodStart(TestTokenizer tokens) {
+        return is_junit5 ? tokens.getMethodStart() : tokens.getPublicMethodStart();
+    }
+
+    private int getMethodEnd(TestTokenizer tokens) {
+        return is_junit5 ? tokens.getMethodEnd() : tokens.getPublicMethodEnd();
+    }
+
+    @Override
+    public boolean hasSameState(TestParser other) {
+        return other instanceof JUnitTestParser && ((JUnitTestParser) other).is_junit5 == is_junit5
+                && ((JUnitTestParser) other).suppress_offset == suppress_offset && ((JUnitTestParser) other).is_test == is_test;
+    }
+}
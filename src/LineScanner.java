@@ -0,0 +1,125 @@
+/**
+ * Line iterator over a text
+ * Every line is handed out as a view of the text instead of a new String
+ * The line table is built with a single pass over the text, DocumentLineScanner uses the one of a document instead
+ * Doesn't depend on the IDE, so it can be used headless
+ */
+public class LineScanner {
+
+    private final CharSequence chars;
+    private final int line_count;
+    private final int[] line_starts;
+
+    /** For scanners that bring their own line table, they must override the offset methods */
+    protected LineScanner(CharSequence chars, int line_count){
+        this.chars = chars;
+        this.line_count = line_count;
+        this.line_starts = null;
+    }
+
+    public LineScanner(CharSequence chars){
+        this.chars = chars;
+        int count = 1;
+        for (int i = 0; i < chars.length(); i++) {
+            if (chars.charAt(i) == '\n')
+                count++;
+        }
+        this.line_count = count;
+        this.line_starts = new int[count];
+        int line = 1;
+        for (int i = 0; i < chars.length(); i++) {
+            if (chars.charAt(i) == '\n')
+                line_starts[line++] = i + 1;
+        }
+    }
+
+    public CharSequence getChars() {
+        return chars;
+    }
+
+    public int getLineCount() {
+        return line_count;
+    }
+
+    public int getLineStartOffset(int line){
+        return line_starts[line];
+    }
+
+    /** @return the offset where the line ends, before its line separator */
+    public int getLineEndOffset(int line){
+        int end = line + 1 < line_count ? line_starts[line + 1] - 1 : chars.length();
+        if (end > line_starts[line] && chars.charAt(end - 1) == '\r')
+            end--;
+        return end;
+    }
+
+    /** @return the number of the line containing the offset */
+    public int getLineNumber(int offset){
+        int low = 0;
+        int high = line_count - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (line_starts[middle] <= offset)
+                low = middle;
+            else
+                high = middle - 1;
+        }
+        return low;
+    }
+
+    /**
+     * Retrieves a line without the line separator
+     * @param line the number of the line
+     * @return a view of the line
+     */
+    public CharSequence getLine(int line){
+        return chars.subSequence(getLineStartOffset(line), getLineEndOffset(line));
+    }
+
+    /**
+     * Finds the first line that contains the given text
+     * @param text the text to be found
+     * @return the line number or -1 if no line contains the text
+     */
+    public int findLine(String text){
+        for (int i = 0; i < line_count; i++) {
+            if (indexOf(chars, text, getLineStartOffset(i), getLineEndOffset(i)) >= 0)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if a char sequence contains a text
+     * @param sequence the sequence to be searched
+     * @param text the text to be found
+     */
+    public static boolean contains(CharSequence sequence, String text){
+        return indexOf(sequence, text, 0, sequence.length()) >= 0;
+    }
+
+    /**
+     * Searches a text inside a region of a char sequence
+     * @param sequence the sequence to be searched
+     * @param text the text to be found
+     * @param start first offset of the region
+     * @param end end offset of the region (exclusive)
+     * @return the offset where the text starts or -1 if it wasn't found
+     */
+    public static int indexOf(CharSequence sequence, String text, int start, int end){
+        int last = end - text.length();
+        if (text.isEmpty())
+            return start <= end ? start : -1;
+        char first = text.charAt(0);
+        for (int i = start; i <= last; i++) {
+            if (sequence.charAt(i) != first)
+                continue;
+            int j = 1;
+            while (j < text.length() && sequence.charAt(i + j) == text.charAt(j))
+                j++;
+            if (j == text.length())
+                return i;
+        }
+        return -1;
+    }
+}
@@ -1,9 +1,20 @@
+import com.intellij.openapi.Disposable;
+
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.HierarchyEvent;
 import java.awt.geom.Arc2D;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 
+public class Loader extends JPanel implements Disposable {
 
-public class Loader extends JPanel{
+    private static final int FRAME_DELAY = 33; //about 30 frames per second
+    private static final int STEP_DELAY = 10;  //the animation advances one step every 10ms
+    private static final Set<Loader> animating = new LinkedHashSet<>();
+    private static final Timer timer = new Timer(FRAME_DELAY, e -> animateAll());
 
     private final int FIRST_STATE = 0;
     private final int SECOND_STATE = 1;
@@ -13,12 +24,27 @@ public class Loader extends JPanel{
     private int min = 270;
     private int max = 40;
     private int current_state = 0;
-    private boolean is_animating = false;
+    private long last_frame = 0;
     Color spinner_color = Color.white;
 
+    public Loader(){
+        //the timer only runs while some animating loader is showing
+        addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0)
+                updateTimer();
+        });
+    }
+
     /**Stop animation*/
     public void stop_animation(){
-        this.is_animating = false;
+        if (animating.remove(this))
+            updateTimer();
+    }
+
+    /** Stops the animation for good when the tool window goes away */
+    @Override
+    public void dispose() {
+        stop_animation();
     }
 
     /**
@@ -36,46 +62,74 @@ public class Loader extends JPanel{
     /**
      * Do the animation having in account the states
      * until the stop_animation method is called
+     * All loaders share the same swing timer, calling it again does nothing
      */
     public void start_animation(){
-        this.is_animating = true;
-        new Thread(()->{
-            while(is_animating) {
-                try {
-                    Thread.sleep(10);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-                if(min == 0){
-                    nextState();
-                }
-                min -= 3;
-                switch (current_state){
-                    case FIRST_STATE: //JUST ROTATE
-                        min -= 2;
-                        max = MIN_SIZE;
-                        break;
-                    case SECOND_STATE: //ROTATE AND GET BIGGER
-                        min -= 2;
-                        if(max < MAX_SIZE)
-                            max += 2;
-                        break;
-                    case THIRD_STATE: //ROTATE AND GET SMALLER
-                        min -= 1;
-                        if(max > MIN_SIZE)
-                            max -= 2;
-                        break;
-                }
-                if(min < 0){
-                    min = 360;
-                }
-                Loader.this.repaint();
-            }
-        }).start();
+        if (animating.add(this)) {
+            last_frame = System.currentTimeMillis();
+            updateTimer();
+        }
+    }
+
+    /** Starts the timer if an animating loader is showing and stops it otherwise */
+    private static void updateTimer(){
+        boolean is_needed = false;
+        for (Loader loader : animating)
+            is_needed |= loader.isShowing();
+        if (is_needed && !timer.isRunning())
+            timer.start();
+        else if (!is_needed && timer.isRunning())
+            timer.stop();
+    }
+
+    private static void animateAll(){
+        long now = System.currentTimeMillis();
+        for (Loader loader : new ArrayList<>(animating)) {
+            if (loader.isShowing())
+                loader.animate(now);
+        }
+        Metrics.count(Metrics.LOADER_FRAMES, 1);
+    }
+
+    /** Advances the animation by the steps that fit in the time since the last frame */
+    private void animate(long now){
+        long steps = (now - last_frame) / STEP_DELAY;
+        if (steps <= 0)
+            return;
+        last_frame += steps * STEP_DELAY;
+        for (long i = 0; i < Math.min(steps, 100); i++)
+            step();
+        repaint();
+    }
+
+    private void step(){
+        if(min == 0){
+            nextState();
+        }
+        min -= 3;
+        switch (current_state){
+            case FIRST_STATE: //JUST ROTATE
+                min -= 2;
+                max = MIN_SIZE;
+                break;
+            case SECOND_STATE: //ROTATE AND GET BIGGER
+                min -= 2;
+                if(max < MAX_SIZE)
+                    max += 2;
+                break;
+            case THIRD_STATE: //ROTATE AND GET SMALLER
+                min -= 1;
+                if(max > MIN_SIZE)
+                    max -= 2;
+                break;
+        }
+        if(min < 0){
+            min = 360;
+        }
     }
 
     /**
-     * Draw the arc with the parameters changed in the animation thread
+     * Draw the arc with the parameters changed in the animation timer
      * */
     @Override
     public void paintComponent(Graphics graphics){
@@ -1,8 +1,21 @@
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.fileEditor.FileEditorManager;
 import com.intellij.openapi.fileEditor.FileEditorManagerEvent;
 import com.intellij.openapi.fileEditor.FileEditorManagerListener;
+import com.intellij.openapi.ide.CopyPasteManager;
+import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.util.IconLoader;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.wm.ToolWindow;
@@ -17,11 +30,22 @@ import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import javax.swing.text.BadLocationException;
 import java.awt.*;
+import java.awt.datatransfer.StringSelection;
 import java.awt.event.*;
-import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class Main implements ToolWindowFactory, FileEditorManagerListener {
+    private static final Logger LOG = Logger.getInstance(Main.class);
+
     //Cards
     protected final String CARD_LOADING_TESTS = "loading";
     protected final String CARD_NO_TESTS      = "no_tests";
@@ -30,12 +54,24 @@ public class Main implements ToolWindowFactory, FileEditorManagerListener {
     //Stuff that needs to be accessed from other places
     protected HintTextField search_field = new HintTextField(Constants.SEARCH_HINT);
     protected JPanel main_panel = new JPanel();
-    protected JPanel tests_panel = new JPanel();
+    protected TestListModel tests_model = new TestListModel();
     protected Loader loader = new Loader();
     protected CardLayout layout = new CardLayout();
     protected Project project;
     protected TestSelector testSelector;
     protected ComboBox test_type;
+    protected AsyncTask populate_task;
+    protected TestSearch search = new TestSearch(tests_model);
+    protected TestCache cache = new TestCache();
+    protected TestSelectorRegistry registry;
+    protected RefreshScheduler scheduler = new RefreshScheduler();
+    protected boolean is_auto_detect = true;
+    protected RunConfigurationFilter run_filter;
+    protected boolean is_keeping_sources = false;
+    protected DiagnosticsPanel diagnostics = new DiagnosticsPanel(scheduler);
+    protected TestList tests_list;
+    protected TestHistory history = new TestHistory();
+    protected TestPrefilter prefilter = new TestPrefilter();
 
     /**
      * Initialize the tool window
@@ -45,6 +81,8 @@ public class Main implements ToolWindowFactory, FileEditorManagerListener {
     @Override
     public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
         this.project = project;
+        registry = new TestSelectorRegistry(tests_model, search_field, project);
+        run_filter = new RunConfigurationFilter(project);
         main_panel.setLayout(layout);
         project.getMessageBus().connect().subscribe(FileEditorManagerListener.FILE_EDITOR_MANAGER, this);
         Component component = toolWindow.getComponent();
@@ -52,56 +90,158 @@ public class Main implements ToolWindowFactory, FileEditorManagerListener {
         component.getParent().add(main_panel);
         initCommonViews();
         component.getParent().add(test_type, BorderLayout.NORTH);
+        diagnostics.setVisible(false);
+        component.getParent().add(diagnostics, BorderLayout.SOUTH);
         loadingTests();
         initNoTests();
         initTests();
-        testSelector = new TestSelectorEspresso(tests_panel, search_field, project);
-        loader.start_animation();
+        testSelector = registry.getSelector(registry.getProviders().get(0));
+        Disposer.register(project, loader);
+        Disposer.register(project, scheduler);
         populate();
+        importHistory(false, null);
     }
 
     private void initCommonViews() {
-        test_type = new ComboBox(new String[]{"Espresso", "Junit"});
+        List<String> types = new ArrayList<>();
+        types.add(Constants.AUTO_DETECT);
+        for (TestSelectorProvider provider : registry.getProviders())
+            types.add(provider.getName());
+        test_type = new ComboBox(types.toArray(new String[types.size()]));
         test_type.setBorder(null);
         test_type.addItemListener(e -> {
-            if (test_type.getSelectedIndex() == 0) {
-                testSelector = new TestSelectorEspresso(tests_panel, search_field, project);
-                populate();
-            } else {
-                testSelector = new TestSelectorJUnit(tests_panel, search_field, project);
-                populate();
-            }
+            if (e.getStateChange() != ItemEvent.SELECTED)
+                return;
+            is_auto_detect = test_type.getSelectedIndex() == 0;
+            if (!is_auto_detect)
+                setTestSelector(registry.getSelector(registry.getProviders().get(test_type.getSelectedIndex() - 1)));
+            populate();
         });
     }
 
+    /** Shows the tests of another selector, the previous one stops following its document */
+    private void setTestSelector(TestSelector selector) {
+        if (selector != testSelector) {
+            testSelector.dispose();
+            testSelector = selector;
+        }
+        testSelector.setRunFilter(is_keeping_sources ? run_filter : null);
+    }
+
     /**
      * Function used to get all the tests asynchronously
+     * The document is scanned on a pooled thread and only the checkboxes are created on the swing thread
+     * A scan that is still running when populate is called again gets cancelled, see RefreshScheduler
+     * Documents that can't have tests are told apart right away by the prefilter and never scanned
      */
     public void populate() {
-        AsyncTask task = new AsyncTask() {
+        Editor editor = FileEditorManager.getInstance(project).getSelectedTextEditor();
+        final Document document = editor != null ? editor.getDocument() : null;
+        final boolean detect = is_auto_detect && document != null;
+        final TestSelector chosen = testSelector;
+        final long requested = System.nanoTime();
+        VirtualFile document_file = document != null ? FileDocumentManager.getInstance().getFile(document) : null;
+        if (document != null && (detect || chosen.dependsOnDocument())
+                && !prefilter.mayContainTests(project, document_file, document, detect ? null : chosen)) {
+            TestSelector selector = null;
+            TestIndex index = null;
+            //the list still follows a source file without tests, so the tests typed in it show up
+            if (prefilter.isCandidate(project, document_file)) {
+                selector = detect ? registry.detect(document_file, document.getCharsSequence()) : chosen;
+                index = selector.createIndex(document, Collections.emptyList());
+            }
+            showNoTests(selector, index, requested);
+            return;
+        }
+        populate_task = new AsyncTask() {
+            private TestSelector selector = chosen;
+            private List<TestDescriptor> found = Collections.emptyList();
+            private TestIndex index;
+
             @Override
             protected void onPreExecute() { //show loading animation while list is being populated
+                if (document != null && !detect)
+                    selector.prepareScan(document);
                 loader.start_animation();
-                SwingUtilities.invokeLater(() -> layout.show(main_panel, CARD_LOADING_TESTS));
+                layout.show(main_panel, CARD_LOADING_TESTS);
             }
 
             @Override
-            protected void doInBackground() { //fill the panel with the tests
-                SwingUtilities.invokeLater(testSelector::fillTests);
+            protected void doInBackground() { //pick the selector and find the tests of the document
+                ApplicationManager.getApplication().runReadAction(() -> {
+                    VirtualFile file = document != null ? FileDocumentManager.getInstance().getFile(document) : null;
+                    if (detect)
+                        selector = registry.detect(file, document.getCharsSequence());
+                    if (!selector.dependsOnDocument())
+                        file = null;
+                    long stamp = document != null ? document.getModificationStamp() : 0;
+                    List<TestDescriptor> cached = file != null ? cache.get(file, stamp, selector) : null;
+                    long start = System.nanoTime();
+                    found = cached != null ? cached : selector.findTests(document, this);
+                    if (isCancelled() || found == null)
+                        return;
+                    if (cached == null) {
+                        Metrics.time(Metrics.SCAN, start);
+                        Metrics.count(Metrics.TESTS_FOUND, found.size());
+                    }
+                    if (file != null && cached == null)
+                        cache.put(file, stamp, selector, found);
+                    index = selector.createIndex(document, found);
+                });
             }
 
             @Override
-            protected void onPostExecute() { //show population results
-                SwingUtilities.invokeLater(() -> {
-                    loader.stop_animation();
-                    if (testSelector.getTests() > 0)
-                        layout.show(main_panel, CARD_TESTS);
-                    else
-                        layout.show(main_panel, CARD_NO_TESTS);
-                });
+            protected void onPostExecute() { //fill the list with the tests and show population results
+                long start = System.nanoTime();
+                loader.stop_animation();
+                if (found == null) { //the selector couldn't read the document yet, it's prepared and read again
+                    selector.prepareScan(document);
+                    populate();
+                    return;
+                }
+                setTestSelector(selector);
+                selector.showTests(found, index);
+                if (selector.getTests() > 0)
+                    layout.show(main_panel, CARD_TESTS);
+                else
+                    layout.show(main_panel, CARD_NO_TESTS);
+                Metrics.time(Metrics.RENDER, start);
+                Metrics.time(Metrics.REFRESH, requested);
             }
         };
-        new Thread(task).start();
+        scheduler.schedule(populate_task);
+    }
+
+    /** Populates the list again, asked by the user, so the source roots may have changed too */
+    private void refresh() {
+        prefilter.clear();
+        populate();
+    }
+
+    /**
+     * Empties the list without scanning, through the scheduler so a scan that is still running can't show its tests after
+     * @param selector the selector that follows the document from now on, null to keep the current one
+     * @param index the index of the document the list follows, null to follow none
+     * @param requested the System.nanoTime when the refresh was requested
+     */
+    private void showNoTests(TestSelector selector, TestIndex index, long requested) {
+        scheduler.schedule(new AsyncTask() {
+            @Override
+            protected void onPreExecute() {}
+
+            @Override
+            protected void doInBackground() {}
+
+            @Override
+            protected void onPostExecute() {
+                loader.stop_animation();
+                if (selector != null)
+                    setTestSelector(selector);
+                testSelector.showTests(Collections.emptyList(), index);
+                layout.show(main_panel, CARD_NO_TESTS);
+                Metrics.time(Metrics.REFRESH, requested);
+            }
+        });
     }
 
     /** Initialize the tests gui */
@@ -111,8 +251,11 @@ public class Main implements ToolWindowFactory, FileEditorManagerListener {
         JPanel panel = new JPanel();
         //INIT the main panel
         panel.setLayout(new BorderLayout());
-        tests_panel.setLayout(new BoxLayout(tests_panel, BoxLayout.PAGE_AXIS));
-        JBScrollPane scrollPane = new JBScrollPane(tests_panel);
+        tests_list = new TestList(tests_model, () -> testSelector, test -> {
+            int millis = history.getMillis(testSelector.getLabel(test));
+            return millis >= 0 ? TestHistory.format(millis) : null;
+        });
+        JBScrollPane scrollPane = new JBScrollPane(tests_list);
         scrollPane.getVerticalScrollBar().setBlockIncrement(16);
         panel.add(scrollPane);
         //######################################################################
@@ -120,32 +263,49 @@ public class Main implements ToolWindowFactory, FileEditorManagerListener {
         JButton all_btn = new JButton(Constants.BTN_SELECT_ALL);
         JButton none_btn = new JButton(Constants.BTN_SELECT_NONE);
         JButton refresh_btn = new JButton(Constants.BTN_REFRESH);
-        panel_btns.setLayout(new GridLayout(3,1));
-        all_btn.addActionListener((ActionEvent e)->{
-                    for (int i = 0; i < tests_panel.getComponentCount(); i++) {
-                        ((JCheckBox) tests_panel.getComponents()[i]).setSelected(true);
-                    }
-                }
+        JButton profiles_btn = new JButton(Constants.BTN_PROFILES);
+        JCheckBox keep_sources_chk = new JCheckBox(Constants.CHK_KEEP_SOURCES);
+        JCheckBox diagnostics_chk = new JCheckBox(Constants.CHK_DIAGNOSTICS);
+        panel_btns.setLayout(new GridLayout(6,1));
+        all_btn.addActionListener((ActionEvent e) ->
+                        testSelector.selectAll(true)
         );
-        none_btn.addActionListener((ActionEvent e) -> {
-                    for (int i = 0; i < tests_panel.getComponentCount(); i++) {
-                        ((JCheckBox) tests_panel.getComponents()[i]).setSelected(false);
-                    }
-                }
+        none_btn.addActionListener((ActionEvent e) ->
+                        testSelector.selectAll(false)
         );
         refresh_btn.addActionListener((ActionEvent e) ->
-                        populate()
+                        refresh()
+        );
+        profiles_btn.addActionListener((ActionEvent e) ->
+                        profilesMenu().show(profiles_btn, 0, profiles_btn.getHeight())
         );
         panel_btns.add(all_btn);
         panel_btns.add(none_btn);
         panel_btns.add(refresh_btn);
+        keep_sources_chk.addActionListener((ActionEvent e) -> {
+            is_keeping_sources = keep_sources_chk.isSelected();
+            setTestSelector(testSelector);
+            if (is_keeping_sources) {
+                run_filter.update(testSelector, tests_model);
+            } else { //show how the sources select the tests again
+                run_filter.clear();
+                populate();
+            }
+        });
+        panel_btns.add(profiles_btn);
+        diagnostics_chk.addActionListener((ActionEvent e) -> {
+            diagnostics.setVisible(diagnostics_chk.isSelected());
+            diagnostics.getParent().revalidate();
+        });
+        panel_btns.add(keep_sources_chk);
+        panel_btns.add(diagnostics_chk);
         //######################################################################
         //INIT the search panel
         panel_search.setLayout(new BorderLayout());
         search_field.setOpaque(false);
         search_field.setBackground(new JBColor(new Color(0, 0, 0, 0), new Color(255, 255, 255, 0)));
         search_field.setBorder(null);
-        search_field.getDocument().addDocumentListener(searchListener(tests_panel));
+        search_field.getDocument().addDocumentListener(searchListener());
 
         //http://www.programcreek.com/java-api-examples/index.php?api=com.intellij.openapi.util.IconLoader
         final Icon icon= IconLoader.getIcon("/actions/close.png");
@@ -182,12 +342,266 @@ public class Main implements ToolWindowFactory, FileEditorManagerListener {
 
     }
 
+    /** @return the menu to save the shown selection as a profile or apply and delete the saved ones */
+    private JPopupMenu profilesMenu(){
+        SelectionProfiles profiles = SelectionProfiles.getInstance(project);
+        JPopupMenu menu = new JPopupMenu();
+        JMenuItem save_item = new JMenuItem(Constants.MENU_SAVE_PROFILE);
+        save_item.addActionListener((ActionEvent e) -> {
+            String name = Messages.showInputDialog(project, Constants.PROFILE_NAME, Constants.BTN_PROFILES, null);
+            if (name != null && !name.trim().isEmpty())
+                profiles.save(name.trim(), testSelector, tests_model);
+        });
+        JMenuItem affected_item = new JMenuItem(Constants.MENU_SELECT_AFFECTED);
+        affected_item.addActionListener((ActionEvent e) -> selectAffected());
+        JMenuItem budget_item = new JMenuItem(Constants.MENU_SELECT_IN_BUDGET);
+        budget_item.addActionListener((ActionEvent e) -> selectInBudget());
+        JMenuItem shards_item = new JMenuItem(Constants.MENU_PLAN_SHARDS);
+        shards_item.addActionListener((ActionEvent e) -> planShards());
+        JMenuItem import_item = new JMenuItem(Constants.MENU_IMPORT_REPORTS);
+        import_item.addActionListener((ActionEvent e) -> importHistory(true, null));
+        menu.add(save_item);
+        menu.add(affected_item);
+        menu.add(budget_item);
+        menu.add(shards_item);
+        menu.add(import_item);
+        if (!profiles.getNames().isEmpty())
+            menu.addSeparator();
+        for (String name : profiles.getNames()) {
+            JMenu profile_menu = new JMenu(name);
+            JMenuItem apply_item = new JMenuItem(Constants.MENU_APPLY_PROFILE);
+            apply_item.addActionListener((ActionEvent e) -> applyProfile(name));
+            JMenuItem delete_item = new JMenuItem(Constants.MENU_DELETE_PROFILE);
+            delete_item.addActionListener((ActionEvent e) -> profiles.remove(name));
+            profile_menu.add(apply_item);
+            profile_menu.add(delete_item);
+            menu.add(profile_menu);
+        }
+        return menu;
+    }
+
+    /**
+     * Applies a saved profile to every test file it covers and reports how it went
+     * When the sources are kept unchanged the profile is selected in the run filter instead
+     */
+    private void applyProfile(String name){
+        if (DumbService.isDumb(project)) {
+            notify(Constants.MSG_INDEXING, NotificationType.WARNING);
+            return;
+        }
+        SelectionProfiles.Report report = SelectionProfiles.getInstance(project).apply(name, project, testSelector);
+        if (report == null)
+            return;
+        if (is_keeping_sources) {
+            notify(String.format(Constants.MSG_PROFILE_SELECTED, name, report.getEdits(), report.getFiles(), report.getMillis()),
+                    NotificationType.INFORMATION);
+            return;
+        }
+        notify(String.format(Constants.MSG_PROFILE_APPLIED, name, report.getEdits(), report.getFiles(), report.getMillis()),
+                NotificationType.INFORMATION);
+        populate();
+    }
+
+    /**
+     * Leaves only the tests affected by the changes of the working tree to run
+     * The tests are found in the background, then every test of the project is suppressed or unsuppressed like a profile
+     * When the sources are kept unchanged only the shown tests are selected
+     */
+    private void selectAffected(){
+        if (DumbService.isDumb(project)) {
+            notify(Constants.MSG_INDEXING, NotificationType.WARNING);
+            return;
+        }
+        new AsyncTask() {
+            private Set<String> affected = Collections.emptySet();
+            private final List<String> labels = new ArrayList<>();
+
+            @Override
+            protected void onPreExecute() {}
+
+            @Override
+            protected void doInBackground() {
+                ApplicationManager.getApplication().runReadAction(() -> {
+                    affected = TestImpact.getAffectedTests(project, this);
+                    for (TestCatalog.Entry entry : TestCatalog.getTests(project, this))
+                        labels.add(entry.getLabel());
+                });
+            }
+
+            @Override
+            protected void onPostExecute() {
+                if (affected.isEmpty()) {
+                    Main.this.notify(Constants.MSG_NO_AFFECTED, NotificationType.INFORMATION);
+                    return;
+                }
+                if (is_keeping_sources) {
+                    Set<String> enabled = new HashSet<>();
+                    for (int k = 0; k < tests_model.getTestCount(); k++) {
+                        if (affected.contains(testSelector.getLabel(k)))
+                            enabled.add(tests_model.getName(k));
+                    }
+                    testSelector.applySelection(enabled);
+                    Main.this.notify(String.format(Constants.MSG_AFFECTED_SHOWN, affected.size(), enabled.size()), NotificationType.INFORMATION);
+                    return;
+                }
+                SelectionProfiles.Profile profile = new SelectionProfiles.Profile();
+                profile.enabled.addAll(affected);
+                for (String label : labels) {
+                    if (!affected.contains(label))
+                        profile.suppressed.add(label);
+                }
+                SelectionProfiles.Report report = SelectionProfiles.apply(profile, Constants.CMD_SELECT_AFFECTED, project, testSelector);
+                Main.this.notify(String.format(Constants.MSG_AFFECTED_APPLIED, affected.size(), report.getEdits(), report.getFiles(),
+                        report.getMillis()), NotificationType.INFORMATION);
+                populate();
+            }
+        }.execute();
+    }
+
+    /** @return the file the test history of the project is kept in, outside of the project so it's never shared */
+    private Path getHistoryFile(){
+        return Paths.get(PathManager.getSystemPath(), "testSelector", project.getName() + "." + project.getLocationHash() + ".history");
+    }
+
+    /**
+     * Imports the test reports written since the last import and saves the history
+     * The import runs on a copy of the history in the background, the list keeps showing the old one until it's done
+     * @param is_reporting whether to tell how many reports were imported
+     * @param then what to run on the swing thread once the history is updated, can be null
+     */
+    private void importHistory(boolean is_reporting, Runnable then){
+        String base_path = project.getBasePath();
+        if (base_path == null)
+            return;
+        new AsyncTask() {
+            private TestHistory updated;
+            private int reports;
+
+            @Override
+            protected void onPreExecute() {}
+
+            @Override
+            protected void doInBackground() {
+                Path file = getHistoryFile();
+                try {
+                    updated = history.size() > 0 ? history.copy() : TestHistory.load(file);
+                    reports = updated.importReports(Paths.get(base_path));
+                    if (reports > 0)
+                        updated.save(file);
+                } catch (IOException e) {
+                    LOG.warn("Can't update the test history " + file, e);
+                }
+            }
+
+            @Override
+            protected void onPostExecute() {
+                if (updated != null)
+                    history = updated;
+                tests_list.repaint();
+                if (is_reporting)
+                    Main.this.notify(String.format(Constants.MSG_REPORTS_IMPORTED, reports, history.size()), NotificationType.INFORMATION);
+                if (then != null)
+                    then.run();
+            }
+        }.execute();
+    }
+
+    /**
+     * Selects the shown tests worth running in the minutes the user has, see TestHistory.select
+     * The new reports are imported first and the whole selection is applied as one edit
+     */
+    private void selectInBudget(){
+        String input = Messages.showInputDialog(project, Constants.BUDGET_MINUTES, Constants.MENU_SELECT_IN_BUDGET, null);
+        if (input == null || input.trim().isEmpty())
+            return;
+        double minutes;
+        try {
+            minutes = Double.parseDouble(input.trim());
+        } catch (NumberFormatException e) {
+            minutes = -1;
+        }
+        if (!(minutes > 0)) {
+            notify(String.format(Constants.MSG_INVALID_BUDGET, input), NotificationType.WARNING);
+            return;
+        }
+        long budget = (long) (minutes * 60000);
+        importHistory(false, () -> {
+            if (history.size() == 0) {
+                notify(Constants.MSG_NO_HISTORY, NotificationType.WARNING);
+                return;
+            }
+            Map<String, String> tests = new LinkedHashMap<>();
+            for (int k = 0; k < tests_model.getTestCount(); k++)
+                tests.put(testSelector.getLabel(k), tests_model.getName(k));
+            Set<String> picked = history.select(tests.keySet(), budget);
+            if (picked.isEmpty()) { //suppressing every test would be worse than keeping the selection
+                notify(String.format(Constants.MSG_NOTHING_FITS, TestHistory.format(budget)), NotificationType.WARNING);
+                return;
+            }
+            Set<String> enabled = new HashSet<>();
+            for (String label : picked)
+                enabled.add(tests.get(label));
+            testSelector.applySelection(enabled);
+            notify(String.format(Constants.MSG_BUDGET_SELECTED, enabled.size(), tests.size(),
+                    TestHistory.format(history.getExpectedMillis(picked)), TestHistory.format(budget)), NotificationType.INFORMATION);
+        });
+    }
+
+    /**
+     * Splits the selected tests into shards of about the same duration, one for every device, see ShardPlanner
+     * The filter of every shard is copied to the clipboard, one line each, to be passed to the runner of each device
+     */
+    private void planShards(){
+        String input = Messages.showInputDialog(project, Constants.SHARD_COUNT, Constants.MENU_PLAN_SHARDS, null);
+        if (input == null || input.trim().isEmpty())
+            return;
+        int count;
+        try {
+            count = Integer.parseInt(input.trim());
+        } catch (NumberFormatException e) {
+            count = 0;
+        }
+        if (count < 1) {
+            notify(String.format(Constants.MSG_INVALID_SHARDS, input), NotificationType.WARNING);
+            return;
+        }
+        List<String> labels = new ArrayList<>();
+        List<String> methods = new ArrayList<>();
+        for (int k = 0; k < tests_model.getTestCount(); k++) {
+            if (!tests_model.isSelected(k))
+                continue;
+            labels.add(testSelector.getLabel(k));
+            methods.add(testSelector.getMethodFilter(k));
+        }
+        if (methods.isEmpty()) {
+            notify(Constants.MSG_NO_SELECTED_TESTS, NotificationType.WARNING);
+            return;
+        }
+        List<ShardPlanner.Shard> shards = ShardPlanner.plan(methods, history.estimate(labels), count);
+        StringBuilder filters = new StringBuilder();
+        for (ShardPlanner.Shard shard : shards)
+            filters.append(shard.getFilter()).append('\n');
+        CopyPasteManager.getInstance().setContents(new StringSelection(filters.toString()));
+        notify(String.format(Constants.MSG_SHARDS_PLANNED, methods.size(), shards.size(),
+                TestHistory.format(ShardPlanner.getMillis(shards)), TestHistory.format(history.getExpectedMillis(labels))),
+                NotificationType.INFORMATION);
+    }
+
+    private void notify(String message, NotificationType type){
+        notify(project, message, type);
+    }
+
+    /** Shows a balloon of the plugin */
+    public static void notify(Project project, String message, NotificationType type){
+        Notifications.Bus.notify(new Notification(Constants.NOTIFICATION_GROUP, Constants.NOTIFICATION_GROUP, message, type), project);
+    }
+
     /** Initialize the no tests gui */
     private void initNoTests(){
         JPanel panel_btns = new JPanel();
         panel_btns.setLayout(new GridLayout(1, 1));
         JButton refresh_btn = new JButton(Constants.BTN_REFRESH);
-        refresh_btn.addActionListener((ActionEvent e) -> populate());
+        refresh_btn.addActionListener((ActionEvent e) -> refresh());
         JPanel panel = new JPanel();
         panel.setLayout(new BorderLayout());
         JLabel label = new JLabel(Constants.NO_RESULTS);
@@ -222,35 +636,25 @@ public class Main implements ToolWindowFactory, FileEditorManagerListener {
      * Filters the tests by query string
      * @param e the document event generated by the documentlistener of the textfield document
      */
-    public void updateTests(DocumentEvent e, JPanel tests_panel){
+    public void updateTests(DocumentEvent e){
         try {
-            String query = e.getDocument().getText(0, e.getDocument().getLength());
-            for (int i = 0; i < tests_panel.getComponentCount(); i++) {
-                Pattern test_pattern = Pattern.compile(".*" + query + ".*", Pattern.CASE_INSENSITIVE);
-                if(test_pattern.matcher(((JCheckBox) tests_panel.getComponents()[i]).getText()).find()){
-                    tests_panel.getComponents()[i].setVisible(true);
-                }else{
-                    tests_panel.getComponents()[i].setVisible(false);
-                }
-            }
+            search.schedule(e.getDocument().getText(0, e.getDocument().getLength()));
         } catch (BadLocationException e1) {
-            e1.printStackTrace();
-        } catch (PatternSyntaxException e2){
-            //do nothing, just wait for the user to put a correct pattern
+            LOG.warn("Can't read the search query", e1);
         }
     }
 
     /**The listenr for the search field*/
-    public DocumentListener searchListener(JPanel tests_panel){
+    public DocumentListener searchListener(){
         return  new DocumentListener() {
             @Override
             public void insertUpdate(DocumentEvent e) {
-                updateTests(e, tests_panel);
+                updateTests(e);
             }
 
             @Override
             public void removeUpdate(DocumentEvent e) {
-                updateTests(e, tests_panel);
+                updateTests(e);
             }
 
             @Override
@@ -0,0 +1,75 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counters and timings of the plugin, shared by every project
+ * Can be updated from any thread and doesn't depend on the IDE, so the headless discovery records them too
+ */
+public class Metrics {
+
+    public static final String LINES_SCANNED = "lines scanned";
+    public static final String TESTS_FOUND = "tests found";
+    public static final String CACHE_HITS = "cache hits";
+    public static final String CACHE_MISSES = "cache misses";
+    public static final String REFRESHES_REQUESTED = "refreshes requested";
+    public static final String REFRESHES_DROPPED = "refreshes dropped";
+    public static final String LOADER_FRAMES = "loader frames";
+    public static final String FILES_SKIPPED = "files skipped by the prefilter";
+    public static final String SCAN = "scan";
+    public static final String UPDATE = "incremental update";
+    public static final String RENDER = "render on the swing thread";
+    public static final String WRITE = "write action";
+    public static final String SEARCH = "search";
+    public static final String REFRESH = "refresh, request to render";
+
+    private static final Map<String, long[]> counters = new LinkedHashMap<>();
+    //count, total, max and last nanoseconds
+    private static final Map<String, long[]> timers = new LinkedHashMap<>();
+
+    private Metrics(){}
+
+    public static synchronized void count(String name, long amount) {
+        counters.computeIfAbsent(name, key -> new long[1])[0] += amount;
+    }
+
+    /**
+     * @param name the name of the timing
+     * @param start the System.nanoTime when the timed work started
+     */
+    public static void time(String name, long start) {
+        long elapsed = System.nanoTime() - start;
+        synchronized (Metrics.class) {
+            long[] timer = timers.computeIfAbsent(name, key -> new long[4]);
+            timer[0]++;
+            timer[1] += elapsed;
+            timer[2] = Math.max(timer[2], elapsed);
+            timer[3] = elapsed;
+        }
+    }
+
+    public static synchronized long getCount(String name) {
+        long[] counter = counters.get(name);
+        return counter != null ? counter[0] : 0;
+    }
+
+    public static synchronized void reset() {
+        counters.clear();
+        timers.clear();
+    }
+
+    /** @return every counter and timing, one per line */
+    public static synchronized String format() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, long[]> counter : counters.entrySet())
+            builder.append(counter.getKey()).append(": ").append(counter.getValue()[0]).append('\n');
+        long lookups = getCount(CACHE_HITS) + getCount(CACHE_MISSES);
+        if (lookups > 0)
+            builder.append(String.format("cache hit rate: %.1f%%%n", 100.0 * getCount(CACHE_HITS) / lookups));
+        for (Map.Entry<String, long[]> timer : timers.entrySet()) {
+            long[] value = timer.getValue();
+            builder.append(String.format("%s: %d times, avg %.2f ms, max %.2f ms, last %.2f ms%n", timer.getKey(),
+                    value[0], value[1] / 1e6 / value[0], value[2] / 1e6, value[3] / 1e6));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,166 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Scans large texts in line aligned chunks on the fork join pool
+ * Every chunk starts with a new parser, as if no annotation came before it. Then the chunks are stitched in order:
+ * the first lines of a chunk are parsed again, going on from the parser that ended the chunk before,
+ * until both parsers are in the same state, from there on the chunk was already parsed right
+ * The tests found are the same the sequential scan finds
+ * Doesn't depend on the IDE, the text must not change while it's scanned
+ */
+public class ParallelTestScan {
+
+    //smaller texts are scanned sequentially, the chunks wouldn't pay off
+    private static final int MIN_CHUNK_CHARS = 128 * 1024;
+
+    private ParallelTestScan(){}
+
+    /**
+     * Finds the tests of a text, in chunks when it's large enough and there's more than one core
+     * Runs on the fork join pool it's called from, or else on the common pool
+     * @param chars the text, it must not change while it's scanned
+     * @param parsers creates a new parser for the kind of tests to be found
+     * @param is_cancelled checked on every line to stop early, can be null
+     * @return the tests found in the text, none if the scan was cancelled
+     */
+    public static List<TestDescriptor> findTests(CharSequence chars, Supplier<? extends TestParser> parsers, BooleanSupplier is_cancelled) {
+        int chunks = Math.min(getPool().getParallelism() * 2, chars.length() / MIN_CHUNK_CHARS);
+        if (chunks < 2)
+            return TestDiscovery.findTests(new LineScanner(chars), parsers.get(), is_cancelled);
+        return findTests(chars, parsers, chunks, is_cancelled);
+    }
+
+    /** @return true if the text would be scanned in chunks */
+    public static boolean isLarge(CharSequence chars) {
+        return getPool().getParallelism() > 1 && chars.length() >= 2 * MIN_CHUNK_CHARS;
+    }
+
+    private static ForkJoinPool getPool() {
+        return ForkJoinTask.getPool() != null ? ForkJoinTask.getPool() : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Finds the tests of a text in the given number of chunks
+     * @see #findTests(CharSequence, Supplier, BooleanSupplier)
+     */
+    public static List<TestDescriptor> findTests(CharSequence chars, Supplier<? extends TestParser> parsers, int chunks,
+                                                 BooleanSupplier is_cancelled) {
+        int length = chars.length();
+        //each chunk starts at a line start, the same line start can't begin two chunks
+        int[] starts = new int[chunks + 1];
+        int count = 1;
+        for (int k = 1; k < chunks; k++) {
+            int start = nextLineStart(chars, Math.max(k * (long) length / chunks, starts[count - 1]));
+            if (start > starts[count - 1] && start < length)
+                starts[count++] = start;
+        }
+        starts[count] = length;
+        final int chunk_count = count;
+
+        List<Chunk> scanned = IntStream.range(0, chunk_count).parallel()
+                .mapToObj(k -> scanChunk(chars, starts[k], starts[k + 1], k == chunk_count - 1, parsers.get(), is_cancelled))
+                .collect(Collectors.toList());
+        if (is_cancelled != null && is_cancelled.getAsBoolean())
+            return Collections.emptyList();
+
+        List<TestDescriptor> found = new ArrayList<>(scanned.get(0).tests);
+        TestParser carried = scanned.get(0).parser;
+        for (int k = 1; k < chunk_count; k++) {
+            Chunk chunk = scanned.get(k);
+            carried = stitch(chars, chunk, k == chunk_count - 1, carried, parsers.get(), found);
+        }
+        return Collections.unmodifiableList(found);
+    }
+
+    /** The tests of a chunk scanned with a new parser, and that parser at the end of the chunk */
+    private static class Chunk {
+        final int from;
+        final int to;
+        final List<TestDescriptor> tests;
+        final TestParser parser;
+
+        Chunk(int from, int to, List<TestDescriptor> tests, TestParser parser) {
+            this.from = from;
+            this.to = to;
+            this.tests = tests;
+            this.parser = parser;
+        }
+    }
+
+    /** Parses the lines starting from from (inclusive) to to (exclusive), the last chunk also has the line after a trailing separator */
+    private static Chunk scanChunk(CharSequence chars, int from, int to, boolean is_last, TestParser parser,
+                                   BooleanSupplier is_cancelled) {
+        List<TestDescriptor> tests = new ArrayList<>();
+        int lines = 0;
+        int start = from;
+        while (start < to || (is_last && start == to)) {
+            if (is_cancelled != null && is_cancelled.getAsBoolean())
+                break;
+            int next = nextLineStart(chars, start);
+            TestDescriptor test = parser.parseLine(chars, start, lineEnd(chars, start, next));
+            if (test != null)
+                tests.add(test);
+            lines++;
+            if (next > chars.length())
+                break;
+            start = next;
+        }
+        Metrics.count(Metrics.LINES_SCANNED, lines);
+        return new Chunk(from, to, tests, parser);
+    }
+
+    /**
+     * Parses the first lines of a chunk again with the parser carried from the chunks before it
+     * @param fresh a new parser, it goes through the same states the parser of the chunk went through
+     * @param found where the tests of the chunk are added
+     * @return the parser with the state at the end of the chunk
+     */
+    private static TestParser stitch(CharSequence chars, Chunk chunk, boolean is_last, TestParser carried, TestParser fresh,
+                                     List<TestDescriptor> found) {
+        int start = chunk.from;
+        while (start < chunk.to || (is_last && start == chunk.to)) {
+            if (carried.hasSameState(fresh)) {
+                //the rest of the chunk was parsed right the first time
+                for (TestDescriptor test : chunk.tests) {
+                    if (test.getOffset() >= start)
+                        found.add(test);
+                }
+                return chunk.parser;
+            }
+            int next = nextLineStart(chars, start);
+            int end = lineEnd(chars, start, next);
+            TestDescriptor test = carried.parseLine(chars, start, end);
+            fresh.parseLine(chars, start, end);
+            if (test != null)
+                found.add(test);
+            if (next > chars.length())
+                break;
+            start = next;
+        }
+        return carried;
+    }
+
+    /** @return the offset after the line separator of the line containing the offset, or past the end of the text if it has none */
+    private static int nextLineStart(CharSequence chars, long offset) {
+        for (int i = (int) offset; i < chars.length(); i++) {
+            if (chars.charAt(i) == '\n')
+                return i + 1;
+        }
+        return chars.length() + 1;
+    }
+
+    private static int lineEnd(CharSequence chars, int start, int next) {
+        int end = next - 1;
+        if (end > start && chars.charAt(end - 1) == '\r')
+            end--;
+        return end;
+    }
+}
@@ -0,0 +1,87 @@
+import com.intellij.openapi.Disposable;
+
+import javax.swing.*;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the refreshes of the test list one at a time
+ * A refresh requested while another one is running cancels it and waits for it to end,
+ * and of all the refreshes requested in the meantime only the last one runs
+ * Must only be used from the swing thread
+ */
+public class RefreshScheduler implements Disposable {
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "TestSelector refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+    private AsyncTask running;
+    private AsyncTask pending;
+    //only changed on the swing thread, read by the refresh thread to skip the tasks a newer request replaced
+    private volatile int generation = 0;
+    private boolean is_disposed = false;
+
+    public RefreshScheduler() {
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /** Runs the task now, or once the running refresh ends if it's still the last one requested */
+    public void schedule(AsyncTask task) {
+        if (is_disposed)
+            return;
+        Metrics.count(Metrics.REFRESHES_REQUESTED, 1);
+        generation++;
+        if (running == null) {
+            start(task, generation);
+            return;
+        }
+        running.cancel();
+        if (pending != null)
+            Metrics.count(Metrics.REFRESHES_DROPPED, 1);
+        pending = task;
+    }
+
+    private void start(AsyncTask task, int task_generation) {
+        running = task;
+        task.execute(runnable -> executor.execute(() -> {
+            //a newer refresh was requested before this one got to run
+            if (task_generation == generation)
+                runnable.run();
+            else
+                task.cancel();
+            //runs after onPostExecute, which the task has already queued on the swing thread
+            SwingUtilities.invokeLater(() -> finished(task));
+        }));
+    }
+
+    private void finished(AsyncTask task) {
+        if (task != running)
+            return;
+        running = null;
+        if (task.isCancelled())
+            Metrics.count(Metrics.REFRESHES_DROPPED, 1);
+        if (pending != null && !is_disposed) {
+            AsyncTask next = pending;
+            pending = null;
+            start(next, generation);
+        }
+    }
+
+    /** @return the refreshes that are running or waiting to run */
+    public int getQueueDepth() {
+        return (running != null ? 1 : 0) + (pending != null ? 1 : 0);
+    }
+
+    @Override
+    public void dispose() {
+        is_disposed = true;
+        if (running != null)
+            running.cancel();
+        pending = null;
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,232 @@
+import com.intellij.execution.RunManager;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.execution.configurations.RunConfiguration;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.project.Project;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the selection of the tests in memory and passes it to the selected run configuration instead of editing the sources
+ * Android test configurations get the tests as instrumentation method filters in their extra options,
+ * -e class com.foo.FooTest#test_a,com.foo.FooTest#test_b, and JUnit configurations run them as a pattern of methods
+ * Other configurations are never changed, the user is warned instead
+ * The selection of every file shown so far is remembered, and the filter runs the selected tests of all of them
+ */
+public class RunConfigurationFilter {
+
+    private static final Pattern filter_pattern = Pattern.compile("\\s*-e\\s+class\\s+\\S+");
+    //the configurations are read through reflection, the android and junit plugins may not be installed
+    private static final String ANDROID_TEST_CONFIGURATION = "AndroidTestRunConfiguration";
+    private static final String JUNIT_CONFIGURATION = "com.intellij.execution.junit.JUnitConfiguration";
+    //android test configurations keep the extra instrumentation options in this public field
+    private static final String EXTRA_OPTIONS = "EXTRA_OPTIONS";
+    //junit configurations keep what they run in the public TEST_OBJECT field of their data, a pattern runs a set of methods
+    private static final String TEST_OBJECT = "TEST_OBJECT";
+    private static final String TEST_PATTERN = "pattern";
+
+    /** What a junit configuration ran before the filter changed it, given back when every test runs again */
+    private static class JUnitTarget {
+        private final String test_object;
+        private final LinkedHashSet<String> patterns;
+
+        JUnitTarget(String test_object, Collection<String> patterns) {
+            this.test_object = test_object;
+            this.patterns = new LinkedHashSet<>(patterns);
+        }
+    }
+
+    private final Project project;
+    //by label, in the order the tests were first shown
+    private final Map<String, Boolean> selection = new LinkedHashMap<>();
+    //the classes of the shown tests, their remembered tests that aren't shown anymore were renamed or deleted
+    private Set<String> shown_classes = new HashSet<>();
+    private final Map<RunConfiguration, JUnitTarget> junit_targets = new WeakHashMap<>();
+    private RunConfiguration warned;
+    private boolean is_empty_warned = false;
+
+    public RunConfigurationFilter(Project project) {
+        this.project = project;
+    }
+
+    /**
+     * Selects the shown tests the way they were last selected, instead of how the sources have them
+     * @param selector the selector showing the tests
+     * @param model the shown tests
+     */
+    public void restore(TestSelector selector, TestListModel model) {
+        Set<String> enabled = new HashSet<>();
+        shown_classes = new HashSet<>();
+        for (int k = 0; k < model.getTestCount(); k++) {
+            String label = selector.getLabel(k);
+            shown_classes.add(ShardPlanner.getClassName(label));
+            Boolean is_selected = selection.get(label);
+            if (is_selected != null ? is_selected : model.isSelected(k))
+                enabled.add(model.getName(k));
+        }
+        model.setSelected(enabled);
+    }
+
+    /**
+     * Selects the shown tests again after the document changed them and passes the selection on
+     * The tests of the shown classes that are gone, renamed or deleted, are forgotten
+     * @param selector the selector showing the tests
+     * @param model the shown tests
+     */
+    public void refresh(TestSelector selector, TestListModel model) {
+        Set<String> classes = shown_classes;
+        restore(selector, model);
+        shown_classes.addAll(classes);
+        update(selector, model);
+    }
+
+    /**
+     * Remembers the selection of tests of any file, like the ones of a profile, without passing it to the run configuration
+     * @param tests whether each test should run, by label
+     * @return the labels of the tests whose remembered selection changed
+     */
+    public Set<String> select(Map<String, Boolean> tests) {
+        Set<String> changed = new LinkedHashSet<>();
+        for (Map.Entry<String, Boolean> entry : tests.entrySet()) {
+            if (!entry.getValue().equals(selection.put(entry.getKey(), entry.getValue())))
+                changed.add(entry.getKey());
+        }
+        return changed;
+    }
+
+    /**
+     * Remembers the selection of the shown tests and passes the selection of every file to the selected run configuration
+     * The remembered tests of the shown classes are replaced by the shown ones, so renamed and deleted tests are dropped
+     * Every test runs when no remembered test is deselected. When none is selected the configuration is left as it is
+     * and the user is warned, running nothing isn't something a filter can ask for
+     * @param selector the selector showing the tests
+     * @param model the shown tests
+     */
+    public void update(TestSelector selector, TestListModel model) {
+        Map<String, Boolean> shown = new LinkedHashMap<>();
+        for (int k = 0; k < model.getTestCount(); k++)
+            shown.put(selector.getLabel(k), model.isSelected(k));
+        Set<String> classes = new HashSet<>(shown_classes);
+        for (String label : shown.keySet())
+            classes.add(ShardPlanner.getClassName(label));
+        selection.keySet().removeIf(label -> !shown.containsKey(label) && classes.contains(ShardPlanner.getClassName(label)));
+        selection.putAll(shown);
+        shown_classes = classes;
+
+        List<String> methods = new ArrayList<>();
+        for (Map.Entry<String, Boolean> entry : selection.entrySet()) {
+            if (entry.getValue())
+                methods.add(ShardPlanner.getMethodFilter(entry.getKey()));
+        }
+        if (methods.isEmpty() && !selection.isEmpty()) {
+            //only warned once until a test is selected again
+            if (!is_empty_warned)
+                Main.notify(project, Constants.MSG_NO_TESTS_TO_RUN, NotificationType.WARNING);
+            is_empty_warned = true;
+            return;
+        }
+        is_empty_warned = false;
+
+        RunnerAndConfigurationSettings settings = RunManager.getInstance(project).getSelectedConfiguration();
+        RunConfiguration configuration = settings != null ? settings.getConfiguration() : null;
+        if (configuration == null || setFilter(configuration, methods.size() == selection.size() ? null : methods))
+            return;
+        //only warned once for each configuration, the selection changes too often
+        if (configuration != warned) {
+            warned = configuration;
+            Main.notify(project, String.format(Constants.MSG_NO_RUN_FILTER, settings.getName()), NotificationType.WARNING);
+        }
+    }
+
+    /** Forgets the selection and removes the method filter from the selected run configuration */
+    public void clear() {
+        selection.clear();
+        shown_classes = new HashSet<>();
+        is_empty_warned = false;
+        RunnerAndConfigurationSettings settings = RunManager.getInstance(project).getSelectedConfiguration();
+        if (settings != null && settings.getConfiguration() != null)
+            setFilter(settings.getConfiguration(), null);
+    }
+
+    /**
+     * @param methods the method filters of the tests to run, com.foo.FooTest#test, null to run every test
+     * @return false if the configuration can't be given a filter, then it's left as it is
+     */
+    private boolean setFilter(RunConfiguration configuration, List<String> methods) {
+        try {
+            if (isA(configuration.getClass(), JUNIT_CONFIGURATION))
+                return setJUnitFilter(configuration, methods);
+            if (!isA(configuration.getClass(), ANDROID_TEST_CONFIGURATION))
+                return false;
+            Field field = configuration.getClass().getField(EXTRA_OPTIONS);
+            if (field.getType() != String.class)
+                return false;
+            String filter = methods != null ? ShardPlanner.getFilter(methods) : "";
+            field.set(configuration, replaceFilter((String) field.get(configuration), filter));
+            return true;
+        } catch (NoSuchFieldException | NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Runs the methods as a junit pattern, com.foo.FooTest,test, or gives back what the configuration ran before
+     * @see #setFilter(RunConfiguration, List)
+     */
+    @SuppressWarnings("unchecked")
+    private boolean setJUnitFilter(RunConfiguration configuration, List<String> methods)
+            throws NoSuchFieldException, NoSuchMethodException, IllegalAccessException, InvocationTargetException {
+        Object data = configuration.getClass().getMethod("getPersistentData").invoke(configuration);
+        Field test_object = data.getClass().getField(TEST_OBJECT);
+        if (methods == null) {
+            JUnitTarget target = junit_targets.remove(configuration);
+            if (target != null) {
+                test_object.set(data, target.test_object);
+                data.getClass().getMethod("setPatterns", LinkedHashSet.class).invoke(data, target.patterns);
+            }
+            return true;
+        }
+        if (!junit_targets.containsKey(configuration)) {
+            Collection<String> patterns = (Collection<String>) data.getClass().getMethod("getPatterns").invoke(data);
+            junit_targets.put(configuration, new JUnitTarget((String) test_object.get(data), patterns));
+        }
+        LinkedHashSet<String> patterns = new LinkedHashSet<>();
+        for (String method : methods)
+            patterns.add(method.replace('#', ','));
+        test_object.set(data, TEST_PATTERN);
+        data.getClass().getMethod("setPatterns", LinkedHashSet.class).invoke(data, patterns);
+        return true;
+    }
+
+    /** @return true if the class or one of its superclasses has the name, the qualified one or else the simple one */
+    private static boolean isA(Class<?> type, String name) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            if (c.getName().equals(name) || c.getSimpleName().equals(name))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param options the options of the configuration, can be null
+     * @param filter the new method filter, empty to run every test
+     * @return the options with the method filter replaced, the other options are kept
+     */
+    public static String replaceFilter(String options, String filter) {
+        String rest = options == null ? "" : filter_pattern.matcher(options).replaceAll("").trim();
+        if (filter.isEmpty())
+            return rest;
+        return rest.isEmpty() ? filter : rest + " " + filter;
+    }
+}
@@ -0,0 +1,188 @@
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.components.StorageScheme;
+import com.intellij.openapi.components.StoragePathMacros;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Named test selections saved with the project
+ * A profile remembers which tests run and which are suppressed, by their com.foo.FooTest.test label
+ * Applying it only edits the tests whose annotation differs from the profile, the other tests are left alone
+ */
+@State(name = "TestSelectorProfiles", storages = {
+        @Storage(file = StoragePathMacros.PROJECT_FILE),
+        @Storage(file = StoragePathMacros.PROJECT_CONFIG_DIR + "/testSelectorProfiles.xml", scheme = StorageScheme.DIRECTORY_BASED)
+})
+public class SelectionProfiles implements PersistentStateComponent<SelectionProfiles.ProfilesState> {
+
+    /** The saved state, serialized by the IDE so its fields must stay public */
+    public static class ProfilesState {
+        public Map<String, Profile> profiles = new TreeMap<>();
+    }
+
+    public static class Profile {
+        public List<String> enabled = new ArrayList<>();
+        public List<String> suppressed = new ArrayList<>();
+    }
+
+    /** What applying a profile did */
+    public static class Report {
+        private final int edits;
+        private final int files;
+        private final long millis;
+
+        Report(int edits, int files, long millis) {
+            this.edits = edits;
+            this.files = files;
+            this.millis = millis;
+        }
+
+        public int getEdits() {
+            return edits;
+        }
+
+        public int getFiles() {
+            return files;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+    }
+
+    private ProfilesState state = new ProfilesState();
+
+    public static SelectionProfiles getInstance(Project project) {
+        return ServiceManager.getService(project, SelectionProfiles.class);
+    }
+
+    @Override
+    public ProfilesState getState() {
+        return state;
+    }
+
+    @Override
+    public void loadState(ProfilesState state) {
+        this.state = state;
+    }
+
+    public List<String> getNames() {
+        return new ArrayList<>(state.profiles.keySet());
+    }
+
+    /**
+     * Saves the selection of the shown tests, replacing the profile with the same name
+     * @param name the name of the profile
+     * @param selector the selector showing the tests
+     * @param model the shown tests
+     */
+    public void save(String name, TestSelector selector, TestListModel model) {
+        Profile profile = new Profile();
+        for (int k = 0; k < model.getTestCount(); k++) {
+            String label = selector.getLabel(k);
+            if (model.isSelected(k))
+                profile.enabled.add(label);
+            else
+                profile.suppressed.add(label);
+        }
+        state.profiles.put(name, profile);
+    }
+
+    public void remove(String name) {
+        state.profiles.remove(name);
+    }
+
+    /**
+     * Suppresses and unsuppresses the tests of the profile in every file they are declared in
+     * The edits of all the files are applied in a single command
+     * When the selector passes the selection to a run filter the sources are left as they are, the tests of the profile
+     * are selected in the run filter instead and the report counts the tests whose selection changed
+     * Must be called on the swing thread while the IDE isn't indexing
+     * @param name the name of the profile
+     * @param project the project with the tests
+     * @param selector applies the edits and keeps its index in sync with them
+     * @return what was done or null if there is no such profile
+     */
+    public Report apply(String name, Project project, TestSelector selector) {
+        Profile profile = state.profiles.get(name);
+        if (profile == null)
+            return null;
+        return apply(profile, Constants.CMD_APPLY_PROFILE + " " + name, project, selector);
+    }
+
+    /**
+     * Suppresses and unsuppresses the tests of a profile that isn't saved
+     * @param command the name of the command shown by undo
+     * @see #apply(String, Project, TestSelector)
+     */
+    public static Report apply(Profile profile, String command, Project project, TestSelector selector) {
+        long start = System.nanoTime();
+        Set<String> enabled = new HashSet<>(profile.enabled);
+        Set<String> suppressed = new HashSet<>(profile.suppressed);
+        Set<String> classes = new HashSet<>();
+        for (String label : enabled)
+            classes.add(ShardPlanner.getClassName(label));
+        for (String label : suppressed)
+            classes.add(ShardPlanner.getClassName(label));
+
+        RunConfigurationFilter run_filter = selector.getRunFilter();
+        Map<Document, List<SuppressEdit>> edits = new LinkedHashMap<>();
+        Set<Document> scanned = new HashSet<>();
+        Map<String, Boolean> selection = new LinkedHashMap<>();
+        ApplicationManager.getApplication().runReadAction(() -> {
+            for (String class_name : classes) {
+                for (VirtualFile file : TestCatalog.getFiles(project, class_name)) {
+                    Document document = FileDocumentManager.getInstance().getDocument(file);
+                    if (document == null || !scanned.add(document))
+                        continue;
+                    String prefix = class_name + ".";
+                    LineScanner scanner = new DocumentLineScanner(document);
+                    List<TestDescriptor> found = TestDiscovery.findAllTests(scanner);
+                    if (run_filter != null) { //only the tests that still exist are selected
+                        for (TestDescriptor test : found) {
+                            String label = prefix + test.getName();
+                            if (enabled.contains(label) || suppressed.contains(label))
+                                selection.put(label, enabled.contains(label));
+                        }
+                        continue;
+                    }
+                    List<SuppressEdit> document_edits = SuppressEdit.select(scanner, found, test -> {
+                        String label = prefix + test.getName();
+                        if (enabled.contains(label))
+                            return true;
+                        return !suppressed.contains(label) && !test.isSuppressed();
+                    });
+                    if (!document_edits.isEmpty())
+                        edits.put(document, document_edits);
+                }
+            }
+        });
+        if (run_filter != null) {
+            Set<String> changed = selector.applyRunSelection(selection);
+            Set<String> changed_classes = new HashSet<>();
+            for (String label : changed)
+                changed_classes.add(ShardPlanner.getClassName(label));
+            return new Report(changed.size(), changed_classes.size(), (System.nanoTime() - start) / 1000000);
+        }
+        selector.applyEdits(edits, command);
+
+        int count = 0;
+        for (List<SuppressEdit> document_edits : edits.values())
+            count += document_edits.size();
+        return new Report(count, edits.size(), (System.nanoTime() - start) / 1000000);
+    }
+}
@@ -0,0 +1,102 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits tests into shards that take about the same time, one for every device running them
+ * Tests are packed longest first, each into the shard that is expected to end first
+ * Doesn't depend on the IDE, so it can be used headless
+ */
+public class ShardPlanner {
+
+    /** The tests run by one device */
+    public static class Shard {
+        private final List<String> tests = new ArrayList<>();
+        private long millis = 0;
+
+        /** @return the method filters of the tests, com.foo.FooTest#test */
+        public List<String> getTests() {
+            return tests;
+        }
+
+        /** @return the milliseconds the tests are expected to take */
+        public long getMillis() {
+            return millis;
+        }
+
+        /** @return the instrumentation argument that runs only the tests of the shard */
+        public String getFilter() {
+            return ShardPlanner.getFilter(tests);
+        }
+    }
+
+    private ShardPlanner(){}
+
+    /**
+     * @param label the label of a test, com.foo.FooTest.test
+     * @return the class of the test, com.foo.FooTest
+     */
+    public static String getClassName(String label){
+        int dot = label.lastIndexOf('.');
+        return dot < 0 ? label : label.substring(0, dot);
+    }
+
+    /**
+     * @param tests the method filters of the tests, com.foo.FooTest#test
+     * @param millis the milliseconds each test is expected to take, in the same order
+     * @param count the number of shards, there are fewer when there are fewer tests
+     * @return the shards, the tests of each one in the order they were given
+     */
+    public static List<Shard> plan(List<String> tests, int[] millis, int count){
+        if (tests.isEmpty() || count < 1)
+            return Collections.emptyList();
+        Integer[] order = new Integer[tests.size()];
+        for (int k = 0; k < order.length; k++)
+            order[k] = k;
+        Arrays.sort(order, (a, b) -> millis[a] != millis[b] ? Integer.compare(millis[b], millis[a]) : tests.get(a).compareTo(tests.get(b)));
+
+        Shard[] shards = new Shard[Math.min(count, tests.size())];
+        int[] shard_of = new int[tests.size()];
+        for (int k = 0; k < shards.length; k++)
+            shards[k] = new Shard();
+        for (int test : order) {
+            int shortest = 0;
+            for (int k = 1; k < shards.length; k++) {
+                if (shards[k].millis < shards[shortest].millis)
+                    shortest = k;
+            }
+            shards[shortest].millis += millis[test];
+            shard_of[test] = shortest;
+        }
+        for (int test = 0; test < tests.size(); test++)
+            shards[shard_of[test]].tests.add(tests.get(test));
+        return Arrays.asList(shards);
+    }
+
+    /** @return the longest time a shard is expected to take, how long running all of them takes */
+    public static long getMillis(List<Shard> shards){
+        long longest = 0;
+        for (Shard shard : shards)
+            longest = Math.max(longest, shard.millis);
+        return longest;
+    }
+
+    /**
+     * @param label the label of a test, com.foo.FooTest.test
+     * @return the test as a method filter, com.foo.FooTest#test
+     */
+    public static String getMethodFilter(String label){
+        int dot = label.lastIndexOf('.');
+        return dot < 0 ? label : label.substring(0, dot) + "#" + label.substring(dot + 1);
+    }
+
+    /**
+     * @param tests the method filters of the tests, com.foo.FooTest#test
+     * @return the instrumentation argument that runs only those tests, -e class com.foo.FooTest#test_a,com.foo.FooTest#test_b
+     */
+    public static String getFilter(Collection<String> tests){
+        return "-e class " + String.join(",", tests);
+    }
+}
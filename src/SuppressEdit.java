@@ -0,0 +1,184 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A text edit that adds or removes the @Suppress annotation of a test
+ * The edit is worked out on the plain text, so it can be applied to a document or to a file
+ */
+public class SuppressEdit {
+
+    public static final String SUPPRESS = "@Suppress";
+
+    private final String test;
+    private final int start;
+    private final int end;
+    private final String replacement;
+
+    private SuppressEdit(String test, int start, int end, String replacement){
+        this.test = test;
+        this.start = start;
+        this.end = end;
+        this.replacement = replacement;
+    }
+
+    /**
+     * @param test the test to be suppressed
+     * @param offset the offset where the line declaring the test starts
+     * @return the edit inserting a @Suppress line above the declaration
+     */
+    public static SuppressEdit insert(String test, int offset){
+        return insert(test, offset, "\n");
+    }
+
+    /** @param separator the line separator used by the text */
+    public static SuppressEdit insert(String test, int offset, String separator){
+        return new SuppressEdit(test, offset, offset, "\t" + SUPPRESS + separator);
+    }
+
+    /**
+     * @param scanner the lines of the text
+     * @param declaration the offset where the declaration of the test starts, at its first annotation or modifier
+     * @return the offset of the line the declaration starts in, a @Suppress line inserted there stays above the whole
+     * signature even when it's split over several lines
+     */
+    public static int getInsertOffset(LineScanner scanner, int declaration){
+        return scanner.getLineStartOffset(scanner.getLineNumber(declaration));
+    }
+
+    /**
+     * The annotation is read from the text, so @Suppress(), @Suppress("reason") and qualified names are deleted whole
+     * @param test the test to be unsuppressed
+     * @param scanner the lines of the text
+     * @param suppress_offset the offset of the annotation
+     * @return the edit deleting the annotation
+     */
+    public static SuppressEdit delete(String test, LineScanner scanner, int suppress_offset){
+        return delete(test, scanner, suppress_offset, getAnnotationEnd(scanner.getChars(), suppress_offset));
+    }
+
+    /**
+     * The whole lines go away when the annotation is alone in them
+     * @param start the offset of the annotation
+     * @param end the offset where the annotation ends, with its arguments
+     */
+    public static SuppressEdit delete(String test, LineScanner scanner, int start, int end){
+        CharSequence chars = scanner.getChars();
+        int line = scanner.getLineNumber(start);
+        int last_line = scanner.getLineNumber(end);
+        int line_start = scanner.getLineStartOffset(line);
+        int line_end = scanner.getLineEndOffset(last_line);
+        if (isBlank(chars, line_start, start) && isBlank(chars, end, line_end)) {
+            int next = last_line + 1 < scanner.getLineCount() ? scanner.getLineStartOffset(last_line + 1) : chars.length();
+            return new SuppressEdit(test, line_start, next, "");
+        }
+        while (end < line_end && chars.charAt(end) == ' ')
+            end++;
+        return new SuppressEdit(test, start, end, "");
+    }
+
+    /**
+     * @param chars the text
+     * @param offset the offset of the @ of an annotation
+     * @return the offset right after the annotation, its name, qualified or not, and its arguments if it has any
+     */
+    public static int getAnnotationEnd(CharSequence chars, int offset){
+        int end = offset + 1;
+        while (end < chars.length() && (Character.isJavaIdentifierPart(chars.charAt(end)) || chars.charAt(end) == '.'))
+            end++;
+        int i = end;
+        while (i < chars.length() && Character.isWhitespace(chars.charAt(i)))
+            i++;
+        if (i == chars.length() || chars.charAt(i) != '(')
+            return end;
+        int depth = 0;
+        for (; i < chars.length(); i++) {
+            char c = chars.charAt(i);
+            if (c == '"' || c == '\'') {
+                //parentheses in literals don't count
+                for (i++; i < chars.length() && chars.charAt(i) != c; i++) {
+                    if (chars.charAt(i) == '\\')
+                        i++;
+                }
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i + 1;
+            }
+        }
+        return end;
+    }
+
+    private static boolean isBlank(CharSequence chars, int start, int end){
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(chars.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Works out the edits that leave only the enabled tests to run
+     * @param scanner the lines of the text the tests were found in
+     * @param found the tests of the text
+     * @param enabled tells if a test should run
+     * @return the edits, sorted from the bottom of the text to the top
+     */
+    public static List<SuppressEdit> select(LineScanner scanner, List<TestDescriptor> found, Predicate<TestDescriptor> enabled){
+        List<SuppressEdit> edits = new ArrayList<>();
+        String separator = LineScanner.contains(scanner.getChars(), "\r\n") ? "\r\n" : "\n";
+        for (TestDescriptor test : found) {
+            boolean run = enabled.test(test);
+            if (run && test.isSuppressed() && test.getSuppressEnd() >= 0)
+                edits.add(delete(test.getName(), scanner, test.getSuppressOffset(), test.getSuppressEnd()));
+            else if (run && test.isSuppressed())
+                edits.add(delete(test.getName(), scanner, test.getSuppressOffset()));
+            else if (!run && !test.isSuppressed())
+                edits.add(insert(test.getName(), test.getOffset(), separator));
+        }
+        sort(edits);
+        return edits;
+    }
+
+    /** Sorts the edits bottom to top, so an edit never moves the offsets of the ones still to be done */
+    public static void sort(List<SuppressEdit> edits){
+        edits.sort((a, b) -> Integer.compare(b.start, a.start));
+    }
+
+    /**
+     * Copies the text once, going through the edits top to bottom
+     * @param text the text to be edited
+     * @param edits the edits sorted bottom to top
+     * @return the edited text
+     */
+    public static String apply(CharSequence text, List<SuppressEdit> edits){
+        StringBuilder builder = new StringBuilder(text.length() + edits.size() * (SUPPRESS.length() + 3));
+        int copied = 0;
+        for (int i = edits.size() - 1; i >= 0; i--) {
+            SuppressEdit edit = edits.get(i);
+            builder.append(text, copied, edit.start).append(edit.replacement);
+            copied = edit.end;
+        }
+        return builder.append(text, copied, text.length()).toString();
+    }
+
+    public String getTest() {
+        return test;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    public String getReplacement() {
+        return replacement;
+    }
+
+    public boolean isInsert() {
+        return !replacement.isEmpty();
+    }
+}
@@ -0,0 +1,64 @@
+import com.intellij.openapi.vfs.VirtualFile;
+
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Least recently used cache of the tests found in files
+ * A file is only a hit while its document has the same modification stamp and is scanned by the same selector
+ * Holds at most MAX_FILES files, and the garbage collector may drop any of them when memory is low
+ * Hits and misses are counted by Metrics
+ */
+public class TestCache {
+
+    private static final int MAX_FILES = 32;
+
+    private final Map<Key, SoftReference<List<TestDescriptor>>> entries =
+            new LinkedHashMap<Key, SoftReference<List<TestDescriptor>>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, SoftReference<List<TestDescriptor>>> eldest) {
+                    return size() > MAX_FILES;
+                }
+            };
+
+    /** @return the cached tests or null if they aren't cached */
+    public synchronized List<TestDescriptor> get(VirtualFile file, long stamp, TestSelector selector) {
+        SoftReference<List<TestDescriptor>> reference = entries.get(new Key(file, stamp, selector));
+        List<TestDescriptor> tests = reference != null ? reference.get() : null;
+        Metrics.count(tests != null ? Metrics.CACHE_HITS : Metrics.CACHE_MISSES, 1);
+        return tests;
+    }
+
+    public synchronized void put(VirtualFile file, long stamp, TestSelector selector, List<TestDescriptor> tests) {
+        //older versions of the file can't be hit anymore
+        entries.keySet().removeIf(key -> key.file.equals(file) && key.selector == selector);
+        entries.put(new Key(file, stamp, selector), new SoftReference<>(tests));
+    }
+
+    private static class Key {
+        final VirtualFile file;
+        final long stamp;
+        final TestSelector selector;
+
+        Key(VirtualFile file, long stamp, TestSelector selector) {
+            this.file = file;
+            this.stamp = stamp;
+            this.selector = selector;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key))
+                return false;
+            Key key = (Key) o;
+            return stamp == key.stamp && file.equals(key.file) && selector == key.selector;
+        }
+
+        @Override
+        public int hashCode() {
+            return (file.hashCode() * 31 + Long.hashCode(stamp)) * 31 + System.identityHashCode(selector);
+        }
+    }
+}
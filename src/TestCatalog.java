@@ -0,0 +1,95 @@
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.FileBasedIndex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The tests of every class in the test sources of a project, read from TestCatalogIndex
+ */
+public class TestCatalog {
+
+    /** A test and the file it is declared in */
+    public static class Entry {
+        private final VirtualFile file;
+        private final String class_name;
+        private final TestDescriptor test;
+
+        public Entry(VirtualFile file, String class_name, TestDescriptor test) {
+            this.file = file;
+            this.class_name = class_name;
+            this.test = test;
+        }
+
+        public VirtualFile getFile() {
+            return file;
+        }
+
+        /** @return the qualified name of the class, com.foo.FooTest */
+        public String getClassName() {
+            return class_name;
+        }
+
+        public TestDescriptor getTest() {
+            return test;
+        }
+
+        /** @return the name shown for the test, which identifies it in the whole project, com.foo.FooTest.test */
+        public String getLabel() {
+            return class_name + "." + test.getName();
+        }
+    }
+
+    /**
+     * Lists the tests of the project
+     * Must be called under a read action. Nothing is returned while the IDE is still indexing
+     * @param project the project to be searched
+     * @param task the task running the search, checked to stop early when it gets cancelled, can be null
+     * @return the tests sorted by the qualified name of their class
+     */
+    public static List<Entry> getTests(Project project, AsyncTask task) {
+        if (DumbService.isDumb(project))
+            return Collections.emptyList();
+        FileBasedIndex file_index = FileBasedIndex.getInstance();
+        ProjectFileIndex project_index = ProjectRootManager.getInstance(project).getFileIndex();
+        GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+        List<String> classes = new ArrayList<>(file_index.getAllKeys(TestCatalogIndex.NAME, project));
+        Collections.sort(classes);
+        List<Entry> entries = new ArrayList<>();
+        for (String class_name : classes) {
+            if (task != null && task.isCancelled())
+                return Collections.emptyList();
+            file_index.processValues(TestCatalogIndex.NAME, class_name, null, (file, tests) -> {
+                if (project_index.isInTestSourceContent(file)) {
+                    for (TestDescriptor test : tests)
+                        entries.add(new Entry(file, class_name, test));
+                }
+                return true;
+            }, scope);
+        }
+        return entries;
+    }
+
+    /**
+     * Finds the test files declaring a class
+     * Must be called under a read action while the IDE isn't indexing
+     * @param class_name the qualified name of the class, com.foo.FooTest
+     * @return the files, usually only one
+     */
+    public static List<VirtualFile> getFiles(Project project, String class_name) {
+        ProjectFileIndex project_index = ProjectRootManager.getInstance(project).getFileIndex();
+        List<VirtualFile> files = new ArrayList<>();
+        for (VirtualFile file : FileBasedIndex.getInstance().getContainingFiles(TestCatalogIndex.NAME, class_name,
+                GlobalSearchScope.projectScope(project))) {
+            if (project_index.isInTestSourceContent(file))
+                files.add(file);
+        }
+        return files;
+    }
+}
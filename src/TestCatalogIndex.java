@@ -0,0 +1,92 @@
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Persistent index from the qualified name of each java class to the tests it declares
+ * The IDE builds it in the background and keeps it updated when files change
+ * Both espresso tests and junit tests are indexed
+ */
+public class TestCatalogIndex extends FileBasedIndexExtension<String, List<TestDescriptor>> {
+
+    public static final ID<String, List<TestDescriptor>> NAME = ID.create("TestSelector.TestCatalog");
+
+    @NotNull
+    @Override
+    public ID<String, List<TestDescriptor>> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, List<TestDescriptor>, FileContent> getIndexer() {
+        return content -> {
+            CharSequence text = content.getContentAsText();
+            if (LineScanner.indexOf(text, "test", 0, text.length()) < 0
+                    && LineScanner.indexOf(text, "Test", 0, text.length()) < 0)
+                return Collections.emptyMap();
+            LineScanner scanner = new LineScanner(text);
+            List<TestDescriptor> found = TestDiscovery.findAllTests(scanner);
+            if (found.isEmpty())
+                return Collections.emptyMap();
+            String name = content.getFileName();
+            String class_name = name.substring(0, name.length() - ".java".length());
+            String package_name = TestDiscovery.findPackage(scanner);
+            return Collections.singletonMap(package_name != null ? package_name + "." + class_name : class_name, found);
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<List<TestDescriptor>> getValueExternalizer() {
+        return new DataExternalizer<List<TestDescriptor>>() {
+            @Override
+            public void save(@NotNull DataOutput out, List<TestDescriptor> tests) throws IOException {
+                out.writeInt(tests.size());
+                for (TestDescriptor test : tests) {
+                    out.writeUTF(test.getName());
+                    out.writeInt(test.getOffset());
+                    out.writeInt(test.getSuppressOffset());
+                }
+            }
+
+            @Override
+            public List<TestDescriptor> read(@NotNull DataInput in) throws IOException {
+                int size = in.readInt();
+                List<TestDescriptor> tests = new ArrayList<>(size);
+                for (int i = 0; i < size; i++)
+                    tests.add(new TestDescriptor(in.readUTF(), in.readInt(), in.readInt()));
+                return tests;
+            }
+        };
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return file -> "java".equals(file.getExtension());
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    @Override
+    public int getVersion() {
+        return 5;
+    }
+}
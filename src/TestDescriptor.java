@@ -0,0 +1,48 @@
+/**
+ * Immutable description of a test found in a document
+ */
+public class TestDescriptor {
+
+    private final String name;
+    private final int offset;
+    private final int suppress_offset;
+    private final int suppress_end;
+
+    /**
+     * @param name the name of the test method
+     * @param offset the offset where the line declaring the test starts
+     * @param suppress_offset the offset of its @Suppress annotation or -1 if it isn't suppressed
+     */
+    public TestDescriptor(String name, int offset, int suppress_offset){
+        this(name, offset, suppress_offset, -1);
+    }
+
+    /** @param suppress_end the offset where the @Suppress annotation ends, with its arguments, or -1 to read it from the text */
+    public TestDescriptor(String name, int offset, int suppress_offset, int suppress_end){
+        this.name = name;
+        this.offset = offset;
+        this.suppress_offset = suppress_offset;
+        this.suppress_end = suppress_end;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getSuppressOffset() {
+        return suppress_offset;
+    }
+
+    /** @return the offset where the @Suppress annotation ends or -1 if it has to be read from the text, see SuppressEdit.getAnnotationEnd */
+    public int getSuppressEnd() {
+        return suppress_end;
+    }
+
+    public boolean isSuppressed() {
+        return suppress_offset >= 0;
+    }
+}
@@ -0,0 +1,132 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Finds the tests of a text
+ * Doesn't depend on the IDE, so the plugin and the command line share it
+ */
+public class TestDiscovery {
+
+    private TestDiscovery(){}
+
+    /**
+     * Finds the tests of a text with the given parser
+     * @param scanner the lines of the text
+     * @param parser a new parser for the kind of tests to be found
+     * @param is_cancelled checked on every line to stop early, can be null
+     * @return the tests found in the text, none if the scan was cancelled
+     */
+    public static List<TestDescriptor> findTests(LineScanner scanner, TestParser parser, BooleanSupplier is_cancelled) {
+        List<TestDescriptor> found = new ArrayList<>();
+        for (int i = 0; i < scanner.getLineCount(); i++) {
+            if (is_cancelled != null && is_cancelled.getAsBoolean()) {
+                Metrics.count(Metrics.LINES_SCANNED, i);
+                return Collections.emptyList();
+            }
+            TestDescriptor test = parser.parseLine(scanner.getChars(), scanner.getLineStartOffset(i), scanner.getLineEndOffset(i));
+            if (test != null)
+                found.add(test);
+        }
+        Metrics.count(Metrics.LINES_SCANNED, scanner.getLineCount());
+        return Collections.unmodifiableList(found);
+    }
+
+    /**
+     * Tells without tokenizing the text if the line parsers could find a test in it
+     * They only find tests on lines with @Test or test_, in any case, so a text without them has none
+     * A single pass that only looks closer at the t and T chars
+     */
+    public static boolean mayContainTests(CharSequence text) {
+        for (int i = indexOfTest(text, 0); i >= 0; i = indexOfTest(text, i + 1)) {
+            if ((i > 0 && text.charAt(i - 1) == '@') || (i + 4 < text.length() && text.charAt(i + 4) == '_'))
+                return true;
+        }
+        return false;
+    }
+
+    /** @return true if the text has the word test in any case, finders that go by method name need nothing more */
+    public static boolean mentionsTest(CharSequence text) {
+        return indexOfTest(text, 0) >= 0;
+    }
+
+    /** @return the index of the next "test" in any case or -1 if there are no more */
+    private static int indexOfTest(CharSequence text, int from) {
+        int last = text.length() - 4;
+        for (int i = from; i <= last; i++) {
+            char c = text.charAt(i);
+            if ((c == 't' || c == 'T')
+                    && (text.charAt(i + 1) | 0x20) == 'e' && (text.charAt(i + 2) | 0x20) == 's' && (text.charAt(i + 3) | 0x20) == 't')
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * The package declaration is the first thing in a source after the comments, like a license header
+     * @param scanner the lines of a java source
+     * @return the package the source declares or null if it's in the default package
+     */
+    public static String findPackage(LineScanner scanner) {
+        CharSequence chars = scanner.getChars();
+        int start = skipComments(chars, 0);
+        int end = start + "package".length();
+        if (!startsWith(chars, start, "package") || end == chars.length() || !Character.isWhitespace(chars.charAt(end)))
+            return null;
+        //the name ends at the semicolon, or at the end of the line in kotlin
+        StringBuilder name = new StringBuilder();
+        for (int i = end; i < chars.length() && chars.charAt(i) != ';' && chars.charAt(i) != '\n'; i++) {
+            if (!Character.isWhitespace(chars.charAt(i)))
+                name.append(chars.charAt(i));
+        }
+        return name.length() > 0 ? name.toString() : null;
+    }
+
+    /** @return the offset of the first character at or after offset that isn't whitespace or part of a comment */
+    private static int skipComments(CharSequence chars, int offset) {
+        int i = offset;
+        while (i < chars.length()) {
+            if (Character.isWhitespace(chars.charAt(i))) {
+                i++;
+            } else if (startsWith(chars, i, "//")) {
+                int end = LineScanner.indexOf(chars, "\n", i, chars.length());
+                i = end < 0 ? chars.length() : end + 1;
+            } else if (startsWith(chars, i, "/*")) {
+                int end = LineScanner.indexOf(chars, "*/", i + 2, chars.length());
+                i = end < 0 ? chars.length() : end + 2;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static boolean startsWith(CharSequence chars, int offset, String text) {
+        if (offset + text.length() > chars.length())
+            return false;
+        for (int i = 0; i < text.length(); i++) {
+            if (chars.charAt(offset + i) != text.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Finds both the espresso and the junit tests of a text, the junit 5 ones when it imports org.junit.jupiter
+     * @return the tests sorted by their offset, each name only once
+     */
+    public static List<TestDescriptor> findAllTests(LineScanner scanner) {
+        Map<String, TestDescriptor> found = new LinkedHashMap<>();
+        for (TestDescriptor test : findTests(scanner, new EspressoTestParser(), null))
+            found.put(test.getName(), test);
+        boolean is_junit5 = LineScanner.contains(scanner.getChars(), "org.junit.jupiter");
+        for (TestDescriptor test : findTests(scanner, new JUnitTestParser(is_junit5), null))
+            found.putIfAbsent(test.getName(), test);
+        List<TestDescriptor> tests = new ArrayList<>(found.values());
+        tests.sort((a, b) -> Integer.compare(a.getOffset(), b.getOffset()));
+        return tests;
+    }
+}
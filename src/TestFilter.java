@@ -0,0 +1,60 @@
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Matches test names against a search query
+ * The query is compiled once, queries without regex characters are matched as plain text
+ */
+public class TestFilter {
+
+    private static final String REGEX_CHARS = "\\\\[](){}.*+?^$|";
+
+    private final String text;
+    private final Pattern pattern;
+
+    private TestFilter(String text, Pattern pattern) {
+        this.text = text;
+        this.pattern = pattern;
+    }
+
+    /**
+     * @param query the text typed by the user
+     * @return the filter or null if the query isn't a valid regular expression yet
+     */
+    public static TestFilter compile(String query) {
+        if (!isRegex(query))
+            return new TestFilter(query.toLowerCase(), null);
+        try {
+            return new TestFilter(null, Pattern.compile(query, Pattern.CASE_INSENSITIVE));
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+    }
+
+    public boolean matches(CharSequence name) {
+        if (pattern != null)
+            return pattern.matcher(name).find();
+        return text.isEmpty() || containsIgnoreCase(name);
+    }
+
+    /** Same as name.toLowerCase().contains(text) without copying the name */
+    private boolean containsIgnoreCase(CharSequence name) {
+        int last = name.length() - text.length();
+        for (int i = 0; i <= last; i++) {
+            int j = 0;
+            while (j < text.length() && Character.toLowerCase(name.charAt(i + j)) == text.charAt(j))
+                j++;
+            if (j == text.length())
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean isRegex(String query) {
+        for (int i = 0; i < query.length(); i++) {
+            if (REGEX_CHARS.indexOf(query.charAt(i)) >= 0)
+                return true;
+        }
+        return false;
+    }
+}
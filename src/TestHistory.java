@@ -0,0 +1,346 @@
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * How long every test took and whether it failed, imported from the JUnit XML reports of the builds
+ * Tests are known by their com.foo.FooTest.test label, the results of a test are kept in parallel arrays at its position
+ * Doesn't depend on the IDE, so it can be used headless
+ */
+public class TestHistory {
+
+    //TSH0 files kept the simple class name of the tests, they are dropped and the reports imported again
+    private static final int MAGIC = 0x54534831; //TSH1
+    //a failure older than this, counted from the newest report, isn't recent anymore
+    private static final long RECENT_FAILURE = 7L * 24 * 60 * 60 * 1000;
+
+    private final Map<String, Integer> positions = new HashMap<>();
+    private String[] labels = new String[16];
+    private int[] millis = new int[16];
+    private long[] last_runs = new long[16];
+    private long[] last_failures = new long[16];
+    private int size = 0;
+    private long newest_report = 0;
+
+    public TestHistory(){}
+
+    private TestHistory(TestHistory other){
+        positions.putAll(other.positions);
+        labels = other.labels.clone();
+        millis = other.millis.clone();
+        last_runs = other.last_runs.clone();
+        last_failures = other.last_failures.clone();
+        size = other.size;
+        newest_report = other.newest_report;
+    }
+
+    /** @return a copy that can be updated while this one is still read */
+    public TestHistory copy(){
+        return new TestHistory(this);
+    }
+
+    public int size(){
+        return size;
+    }
+
+    /** @return the time the newest imported report was written, 0 if none was */
+    public long getNewestReport(){
+        return newest_report;
+    }
+
+    /** @return the milliseconds the test took the last time it ran or -1 if it never did */
+    public int getMillis(String label){
+        Integer position = positions.get(label);
+        return position != null ? millis[position] : -1;
+    }
+
+    /** @return the time the test failed for the last time or 0 if it never did */
+    public long getLastFailure(String label){
+        Integer position = positions.get(label);
+        return position != null ? last_failures[position] : 0;
+    }
+
+    /** @return true if the test failed the last time it ran or failed recently */
+    public boolean hasFailedRecently(String label){
+        Integer position = positions.get(label);
+        if (position == null || last_failures[position] == 0)
+            return false;
+        return last_failures[position] == last_runs[position] || last_failures[position] >= newest_report - RECENT_FAILURE;
+    }
+
+    /**
+     * Records a result of a test, older results than the known one are ignored
+     * @param time when the test ran, the time of its report
+     */
+    public void record(String label, int duration, boolean failed, long time){
+        Integer position = positions.get(label);
+        if (position == null) {
+            if (size == labels.length) {
+                labels = Arrays.copyOf(labels, size * 2);
+                millis = Arrays.copyOf(millis, size * 2);
+                last_runs = Arrays.copyOf(last_runs, size * 2);
+                last_failures = Arrays.copyOf(last_failures, size * 2);
+            }
+            position = size++;
+            positions.put(label, position);
+            labels[position] = label;
+        } else if (time < last_runs[position]) {
+            if (failed && time > last_failures[position])
+                last_failures[position] = time;
+            return;
+        }
+        millis[position] = duration;
+        last_runs[position] = time;
+        if (failed)
+            last_failures[position] = time;
+        newest_report = Math.max(newest_report, time);
+    }
+
+    /**
+     * Imports a JUnit XML report, the format written by Gradle, Maven surefire and the Android instrumentation runner
+     * Every testcase element is one result, it failed if it has a failure or error child
+     * @param time when the tests of the report ran
+     * @return the number of results imported
+     */
+    public int importReport(InputStream input, long time) throws IOException {
+        int[] count = {0};
+        DefaultHandler handler = new DefaultHandler() {
+            private String label;
+            private int duration;
+            private boolean failed;
+
+            @Override
+            public void startElement(String uri, String local_name, String name, Attributes attributes) {
+                if (name.equals("testcase")) {
+                    String class_name = attributes.getValue("classname");
+                    String test = attributes.getValue("name");
+                    if (class_name == null || test == null)
+                        return;
+                    label = class_name + "." + test;
+                    duration = parseMillis(attributes.getValue("time"));
+                    failed = false;
+                } else if (label != null && (name.equals("failure") || name.equals("error"))) {
+                    failed = true;
+                } else if (label != null && name.equals("skipped")) {
+                    label = null;
+                }
+            }
+
+            @Override
+            public void endElement(String uri, String local_name, String name) {
+                if (name.equals("testcase") && label != null) {
+                    record(label, duration, failed, time);
+                    label = null;
+                    count[0]++;
+                }
+            }
+        };
+        try {
+            //reports can come from any build, so nothing outside the report is ever read
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+            SAXParser parser = factory.newSAXParser();
+            parser.parse(input, handler);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        return count[0];
+    }
+
+    /** @return the seconds of a report as milliseconds, 0 if they can't be read */
+    private static int parseMillis(String seconds){
+        if (seconds == null)
+            return 0;
+        try {
+            return (int) Math.min(Integer.MAX_VALUE, Math.round(Double.parseDouble(seconds.replace(",", "")) * 1000));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Imports the reports under a directory written after the newest report already imported
+     * Reports are the TEST-*.xml files, hidden directories aren't searched
+     * @return the reports imported
+     */
+    public int importReports(Path root) throws IOException {
+        long since = newest_report;
+        List<Path> reports = new ArrayList<>();
+        Map<Path, Long> times = new HashMap<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+                boolean hidden = !dir.equals(root) && dir.getFileName().toString().startsWith(".");
+                return hidden ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                String name = file.getFileName().toString();
+                long time = attributes.lastModifiedTime().toMillis();
+                if (name.startsWith("TEST-") && name.endsWith(".xml") && attributes.isRegularFile() && time > since) {
+                    reports.add(file);
+                    times.put(file, time);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        reports.sort((a, b) -> Long.compare(times.get(a), times.get(b)));
+        int imported = 0;
+        for (Path report : reports) {
+            try (InputStream input = new BufferedInputStream(Files.newInputStream(report))) {
+                importReport(input, times.get(report));
+                imported++;
+            } catch (IOException e) {
+                //a report that is still being written or isn't JUnit XML, it's skipped
+            }
+        }
+        return imported;
+    }
+
+    /**
+     * Picks the tests worth running in a time budget
+     * Tests that failed recently come first, the most recent failure first, then the cheapest ones
+     * Tests that never ran are expected to take as long as the median known test
+     * @param candidates the labels of the tests to pick from
+     * @param budget the milliseconds the picked tests may take
+     * @return the picked labels, in the order they were picked
+     */
+    public Set<String> select(Collection<String> candidates, long budget){
+        int estimate = getMedianMillis();
+        List<String> failed = new ArrayList<>();
+        List<String> others = new ArrayList<>();
+        for (String label : candidates)
+            (hasFailedRecently(label) ? failed : others).add(label);
+        failed.sort((a, b) -> Long.compare(getLastFailure(b), getLastFailure(a)));
+        others.sort((a, b) -> Integer.compare(getExpectedMillis(a, estimate), getExpectedMillis(b, estimate)));
+
+        Set<String> picked = new LinkedHashSet<>();
+        long total = 0;
+        for (List<String> group : Arrays.asList(failed, others)) {
+            for (String label : group) {
+                int expected = getExpectedMillis(label, estimate);
+                if (total + expected > budget)
+                    continue;
+                total += expected;
+                picked.add(label);
+            }
+        }
+        return picked;
+    }
+
+    /** @return the milliseconds the tests are expected to take, the unknown ones like the median test */
+    public long getExpectedMillis(Collection<String> candidates){
+        int estimate = getMedianMillis();
+        long total = 0;
+        for (String label : candidates)
+            total += getExpectedMillis(label, estimate);
+        return total;
+    }
+
+    /** @return the milliseconds each test is expected to take, in the same order, the unknown ones like the median test */
+    public int[] estimate(List<String> candidates){
+        int estimate = getMedianMillis();
+        int[] expected = new int[candidates.size()];
+        for (int k = 0; k < expected.length; k++)
+            expected[k] = getExpectedMillis(candidates.get(k), estimate);
+        return expected;
+    }
+
+    private int getExpectedMillis(String label, int estimate){
+        int known = getMillis(label);
+        return known >= 0 ? known : estimate;
+    }
+
+    private int getMedianMillis(){
+        if (size == 0)
+            return 0;
+        int[] sorted = Arrays.copyOf(millis, size);
+        Arrays.sort(sorted);
+        return sorted[size / 2];
+    }
+
+    /** @return the duration as it's shown next to a test, like 350 ms, 2.4 s or 3 min 05 s */
+    public static String format(long duration){
+        if (duration < 1000)
+            return duration + " ms";
+        if (duration < 60000)
+            return String.format("%.1f s", duration / 1000.0);
+        return String.format("%d min %02d s", duration / 60000, duration / 1000 % 60);
+    }
+
+    /**
+     * Loads the history saved by save
+     * @return the history or an empty one if the file doesn't exist or was written by another version
+     */
+    public static TestHistory load(Path file) throws IOException {
+        TestHistory history = new TestHistory();
+        if (!Files.isRegularFile(file))
+            return history;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC)
+                return history;
+            int count = input.readInt();
+            for (int k = 0; k < count; k++) {
+                String label = input.readUTF();
+                int duration = input.readInt();
+                long last_run = input.readLong();
+                long last_failure = input.readLong();
+                history.record(label, duration, last_failure != 0 && last_failure == last_run, last_run);
+                if (last_failure != 0 && last_failure != last_run)
+                    history.record(label, duration, true, last_failure);
+            }
+        }
+        return history;
+    }
+
+    /** Writes the history in a binary format, about 24 bytes plus the label per test */
+    public void save(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(size);
+            for (int k = 0; k < size; k++) {
+                output.writeUTF(labels[k]);
+                output.writeInt(millis[k]);
+                output.writeLong(last_runs[k]);
+                output.writeLong(last_failures[k]);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
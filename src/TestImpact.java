@@ -0,0 +1,61 @@
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.vcs.changes.ChangeListManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.FileBasedIndex;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the tests affected by the changes of the working tree, the files the version control reports as changed
+ * A test is affected when its own file changed or when it mentions a class declared in a changed file
+ * Classes are matched by their qualified name, so a class with the same name in another package doesn't count
+ */
+public class TestImpact {
+
+    /**
+     * Must be called under a read action. Nothing is returned while the IDE is still indexing
+     * @param project the project with the changes
+     * @param task the task running the search, checked to stop early when it gets cancelled, can be null
+     * @return the labels of the affected tests, com.foo.FooTest.test
+     */
+    public static Set<String> getAffectedTests(Project project, AsyncTask task) {
+        if (DumbService.isDumb(project))
+            return Collections.emptySet();
+        FileBasedIndex file_index = FileBasedIndex.getInstance();
+        ProjectFileIndex project_index = ProjectRootManager.getInstance(project).getFileIndex();
+        GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+        Set<String> affected = new LinkedHashSet<>();
+        for (VirtualFile file : ChangeListManager.getInstance(project).getAffectedFiles()) {
+            if (task != null && task.isCancelled())
+                return Collections.emptySet();
+            if (!file.isValid() || file.isDirectory())
+                continue;
+            if (project_index.isInTestSourceContent(file)) {
+                //the catalog knows the qualified name of the class
+                for (Map.Entry<String, List<TestDescriptor>> tests : file_index.getFileData(TestCatalogIndex.NAME, file, project).entrySet()) {
+                    for (TestDescriptor test : tests.getValue())
+                        affected.add(tests.getKey() + "." + test.getName());
+                }
+            }
+            Document document = FileDocumentManager.getInstance().getDocument(file);
+            String package_name = document != null ? TestDiscovery.findPackage(new DocumentLineScanner(document)) : null;
+            String class_name = package_name != null ? package_name + "." + file.getNameWithoutExtension() : file.getNameWithoutExtension();
+            file_index.processValues(TestReferenceIndex.NAME, class_name, null, (test_file, labels) -> {
+                if (project_index.isInTestSourceContent(test_file))
+                    affected.addAll(labels);
+                return true;
+            }, scope);
+        }
+        return affected;
+    }
+}
@@ -0,0 +1,144 @@
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.RangeMarker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Index of the places where every test is declared and suppressed, by the position of the test in the list
+ * Range markers are used so the offsets follow the edits made to the document
+ * Markers keep their order when the document changes, so the tests around an offset are found with a binary search
+ */
+public class TestIndex {
+
+    public static final String SUPPRESS = SuppressEdit.SUPPRESS;
+
+    private final Document document;
+    private final List<RangeMarker> declarations = new ArrayList<>();
+    //null for the tests that aren't suppressed
+    private final List<RangeMarker> suppressions = new ArrayList<>();
+
+    /**
+     * Creates the markers for the tests found in a document, at the same positions
+     * Must be called under a read action with the same document snapshot the tests were found in
+     */
+    public TestIndex(Document document, List<TestDescriptor> found){
+        this.document = document;
+        replace(0, 0, found);
+    }
+
+    public Document getDocument() {
+        return document;
+    }
+
+    /** @return the number of tests, the same as the list showing them */
+    public int size() {
+        return declarations.size();
+    }
+
+    /**
+     * @param test the position of the test
+     * @return the offset where the line declaring the test starts or -1 if its declaration was deleted
+     */
+    public int getDeclarationOffset(int test){
+        RangeMarker marker = declarations.get(test);
+        if (!marker.isValid())
+            return -1;
+        return document.getLineStartOffset(document.getLineNumber(marker.getStartOffset()));
+    }
+
+    /**
+     * @param test the position of the test
+     * @return the marker over the whole @Suppress annotation of the test or null if it isn't suppressed
+     */
+    public RangeMarker getSuppression(int test){
+        RangeMarker marker = suppressions.get(test);
+        if (marker == null || !marker.isValid())
+            return null;
+        return marker;
+    }
+
+    /**
+     * Finds the first test declared at or after an offset
+     * Only the tests in a range that was just deleted can have lost their declaration, they are at the offset of the change
+     * @param offset an offset of the document
+     * @param is_deleted_after whether the tests whose declaration was deleted count as declared after the offset
+     * @return the position of the test or size() if there is none
+     */
+    public int findTest(int offset, boolean is_deleted_after){
+        int low = 0;
+        int high = declarations.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            RangeMarker marker = declarations.get(middle);
+            if (marker.isValid() ? marker.getStartOffset() >= offset : is_deleted_after)
+                high = middle;
+            else
+                low = middle + 1;
+        }
+        return low;
+    }
+
+    /** Marks the line starting at offset as the declaration of the test */
+    public void putDeclaration(int test, int offset){
+        set(declarations, test, createDeclaration(offset));
+    }
+
+    /** Marks the @Suppress annotation starting at offset as the suppression of the test */
+    public void putSuppression(int test, int offset){
+        set(suppressions, test, createSuppression(offset));
+    }
+
+    public void removeSuppression(int test){
+        set(suppressions, test, null);
+    }
+
+    /**
+     * Replaces the markers of the tests from position from (inclusive) to position to (exclusive) by markers of the found tests
+     * Only the markers of the replaced tests are touched
+     */
+    public void replace(int from, int to, List<TestDescriptor> found){
+        List<RangeMarker> old_declarations = declarations.subList(from, to);
+        List<RangeMarker> old_suppressions = suppressions.subList(from, to);
+        for (int k = 0; k < old_declarations.size(); k++) {
+            old_declarations.get(k).dispose();
+            if (old_suppressions.get(k) != null)
+                old_suppressions.get(k).dispose();
+        }
+        old_declarations.clear();
+        old_suppressions.clear();
+        List<RangeMarker> new_declarations = new ArrayList<>(found.size());
+        List<RangeMarker> new_suppressions = new ArrayList<>(found.size());
+        for (TestDescriptor test : found) {
+            new_declarations.add(createDeclaration(test.getOffset()));
+            if (!test.isSuppressed())
+                new_suppressions.add(null);
+            else if (test.getSuppressEnd() >= 0)
+                new_suppressions.add(document.createRangeMarker(test.getSuppressOffset(), test.getSuppressEnd()));
+            else
+                new_suppressions.add(createSuppression(test.getSuppressOffset()));
+        }
+        declarations.addAll(from, new_declarations);
+        suppressions.addAll(from, new_suppressions);
+    }
+
+    /** Releases all the markers, the index shouldn't be used after this */
+    public void dispose(){
+        replace(0, declarations.size(), new ArrayList<>());
+    }
+
+    private RangeMarker createDeclaration(int offset){
+        return document.createRangeMarker(offset, document.getLineEndOffset(document.getLineNumber(offset)));
+    }
+
+    /** The marker covers the whole annotation, with its arguments */
+    private RangeMarker createSuppression(int offset){
+        return document.createRangeMarker(offset, SuppressEdit.getAnnotationEnd(document.getCharsSequence(), offset));
+    }
+
+    private static void set(List<RangeMarker> markers, int test, RangeMarker marker){
+        RangeMarker old = markers.set(test, marker);
+        if (old != null)
+            old.dispose();
+    }
+}
@@ -0,0 +1,115 @@
+import com.intellij.ui.components.JBList;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * List of tests drawn as checkboxes
+ * Only the visible rows are painted, all of them with the same checkbox, and all rows share one popup menu
+ * Toggling a row suppresses or unsuppresses its test through the current selector, a row is toggled by clicking its checkbox
+ * or by pressing space, clicking its name only selects it
+ * A row can show details after the name of its test, like how long it took to run
+ */
+public class TestList extends JBList<String> {
+
+    private final TestListModel model;
+    private final Supplier<TestSelector> selector;
+    private final CheckBoxRenderer renderer;
+
+    /** @param details the text shown after the name of the test at a position or null to show nothing */
+    public TestList(TestListModel model, Supplier<TestSelector> selector, IntFunction<String> details) {
+        super(model);
+        this.model = model;
+        this.selector = selector;
+        renderer = new CheckBoxRenderer(model, details);
+        setCellRenderer(renderer);
+        setFixedCellHeight(renderer.getPreferredSize().height);
+
+        JPopupMenu popmenu = new JPopupMenu();
+        JMenuItem item = new JMenuItem(Constants.BTN_GOTO);
+        item.addActionListener((ActionEvent e) -> {
+            int row = getSelectedIndex();
+            if (row >= 0)
+                selector.get().gotoText(model.getTest(row));
+        });
+        popmenu.add(item);
+        setComponentPopupMenu(popmenu);
+
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                int row = getRowAt(e.getPoint());
+                if (row >= 0 && !SwingUtilities.isLeftMouseButton(e))
+                    setSelectedIndex(row);
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = getRowAt(e.getPoint());
+                if (row >= 0 && SwingUtilities.isLeftMouseButton(e) && isOverCheckBox(row, e.getPoint()))
+                    toggle(row);
+            }
+        });
+        getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_SPACE, 0), "toggle");
+        getActionMap().put("toggle", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                for (int row : getSelectedIndices())
+                    toggle(row);
+            }
+        });
+    }
+
+    /** Suppresses the test of the row if it's selected or unsuppresses it if it isn't */
+    private void toggle(int row) {
+        int test = model.getTest(row);
+        selector.get().setTestSelected(test, !model.isSelected(test));
+    }
+
+    /** @return the row under the point or -1 if the point isn't over a row */
+    private int getRowAt(Point point) {
+        int row = locationToIndex(point);
+        if (row < 0 || !getCellBounds(row, row).contains(point))
+            return -1;
+        return row;
+    }
+
+    /** @return true if the point is over the checkbox of the row, not over the name of its test */
+    private boolean isOverCheckBox(int row, Point point) {
+        Rectangle bounds = getCellBounds(row, row);
+        Icon icon = UIManager.getIcon("CheckBox.icon");
+        int width = renderer.getInsets().left + (icon != null ? icon.getIconWidth() : bounds.height) + renderer.getIconTextGap();
+        return point.x - bounds.x < width;
+    }
+
+    /** Draws every row with the same checkbox */
+    private static class CheckBoxRenderer extends JCheckBox implements ListCellRenderer<String> {
+
+        private final TestListModel model;
+        private final IntFunction<String> details;
+
+        CheckBoxRenderer(TestListModel model, IntFunction<String> details) {
+            super("");
+            this.model = model;
+            this.details = details;
+        }
+
+        @Override
+        public Component getListCellRendererComponent(JList<? extends String> list, String name, int row,
+                                                      boolean is_selected, boolean has_focus) {
+            int test = model.getTest(row);
+            String detail = details.apply(test);
+            setText(detail != null ? name + "  (" + detail + ")" : name);
+            setSelected(model.isSelected(test));
+            setBackground(is_selected ? list.getSelectionBackground() : list.getBackground());
+            setForeground(is_selected ? list.getSelectionForeground() : list.getForeground());
+            return this;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+import javax.swing.*;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The tests shown in the list, with their selection and whether they match the search
+ * Rows are the tests that aren't hidden by the search, in the order they were found
+ * The tests are kept in a TestTable, so a name is only built when a row is painted or a test is looked at
+ * Must only be used from the swing thread
+ */
+public class TestListModel extends AbstractListModel<String> {
+
+    private TestTable tests = new TestTable();
+    private BitSet selected = new BitSet();
+    private BitSet hidden = new BitSet();
+    private int[] rows = new int[0];
+    private int modifications = 0;
+    private TestFilter filter;
+
+    @Override
+    public int getSize() {
+        return rows.length;
+    }
+
+    @Override
+    public String getElementAt(int row) {
+        return tests.getName(rows[row]);
+    }
+
+    /** @return the number of tests, including the ones hidden by the search */
+    public int getTestCount() {
+        return tests.size();
+    }
+
+    /** @return the test shown in the row */
+    public int getTest(int row) {
+        return rows[row];
+    }
+
+    public String getName(int test) {
+        return tests.getName(test);
+    }
+
+    /** @return the tests, the table is replaced instead of changed so it can be read from another thread */
+    public TestTable getTable() {
+        return tests;
+    }
+
+    public boolean isSelected(int test) {
+        return selected.get(test);
+    }
+
+    /** @return the first test with the name or -1 if there is none */
+    public int indexOf(String name) {
+        return tests.indexOf(name);
+    }
+
+    /** @return a counter that changes every time tests are added or removed */
+    public int getModifications() {
+        return modifications;
+    }
+
+    /** Replaces all the tests, a test is selected when it isn't suppressed */
+    public void setTests(List<TestDescriptor> found) {
+        replace(0, tests.size(), found);
+    }
+
+    /** Replaces the tests from position from (inclusive) to position to (exclusive) by the found tests */
+    public void replace(int from, int to, List<TestDescriptor> found) {
+        int old_size = rows.length;
+        TestTable new_tests = new TestTable();
+        BitSet new_selected = new BitSet();
+        BitSet new_hidden = new BitSet();
+        for (int k = 0; k <= tests.size(); k++) {
+            if (k == from) {
+                for (TestDescriptor test : found) {
+                    int added = new_tests.add(test.getName(), test.getOffset(), test.getSuppressOffset());
+                    new_selected.set(added, !test.isSuppressed());
+                    new_hidden.set(added, filter != null && !filter.matches(test.getName()));
+                }
+            }
+            if (k == tests.size() || (k >= from && k < to))
+                continue;
+            int added = new_tests.add(tests, k);
+            new_selected.set(added, selected.get(k));
+            new_hidden.set(added, hidden.get(k));
+        }
+        tests = new_tests.trim();
+        selected = new_selected;
+        hidden = new_hidden;
+        modifications++;
+        updateRows(old_size);
+    }
+
+    public void setSelected(int test, boolean is_selected) {
+        if (test < 0 || selected.get(test) == is_selected)
+            return;
+        selected.set(test, is_selected);
+        if (!hidden.get(test)) {
+            int row = Arrays.binarySearch(rows, test);
+            fireContentsChanged(this, row, row);
+        }
+    }
+
+    /** Selects the tests whose names are in the set and unselects the others */
+    public void setSelected(Set<String> enabled) {
+        for (int k = 0; k < tests.size(); k++)
+            selected.set(k, enabled.contains(tests.getName(k)));
+        if (rows.length > 0)
+            fireContentsChanged(this, 0, rows.length - 1);
+    }
+
+    /**
+     * Shows or hides the tests whose visibility changed with the search
+     * @param filter the filter the tests were matched against
+     * @param changed the tests whose visibility should be flipped
+     * @param modifications the modifications counter when the tests were matched
+     * @return false if the tests changed in the meantime, so nothing was done
+     */
+    public boolean applyFilter(TestFilter filter, BitSet changed, int modifications) {
+        if (modifications != this.modifications)
+            return false;
+        this.filter = filter;
+        if (!changed.isEmpty()) {
+            hidden.xor(changed);
+            updateRows(rows.length);
+        }
+        return true;
+    }
+
+    /** @return whether the test is hidden by the search */
+    public boolean isHidden(int test) {
+        return hidden.get(test);
+    }
+
+    private void updateRows(int old_size) {
+        int[] new_rows = new int[tests.size() - hidden.cardinality()];
+        int row = 0;
+        for (int k = 0; k < tests.size(); k++) {
+            if (!hidden.get(k))
+                new_rows[row++] = k;
+        }
+        rows = new_rows;
+        int size = rows.length;
+        if (size < old_size)
+            fireIntervalRemoved(this, size, old_size - 1);
+        else if (size > old_size)
+            fireIntervalAdded(this, old_size, size - 1);
+        if (Math.min(size, old_size) > 0)
+            fireContentsChanged(this, 0, Math.min(size, old_size) - 1);
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * Parses a document line by line
+ * Keeps the annotation state between lines, so a new parser must be used for every scan
+ */
+public interface TestParser {
+
+    /**
+     * @param line the line to be parsed, without the line separator
+     * @param offset the offset of the document where the line starts
+     * @return the test declared in the line or null if the line doesn't declare one
+     */
+    TestDescriptor parseLine(CharSequence line, int offset);
+
+    /**
+     * Parses a line without taking it out of the text, so the text must be the whole document
+     * @param chars the text of the document
+     * @param start the offset where the line starts
+     * @param end the offset where the line ends, before its line separator
+     * @return the test declared in the line or null if the line doesn't declare one
+     */
+    default TestDescriptor parseLine(CharSequence chars, int start, int end) {
+        return parseLine(chars.subSequence(start, end), start);
+    }
+
+    /**
+     * Used to stitch the chunks of a parallel scan, see ParallelTestScan
+     * Returning false is always right, it only makes the scan parse more lines again
+     * @param other a parser of the same kind
+     * @return true if both parsers would parse the next lines the same way
+     */
+    default boolean hasSameState(TestParser other) {
+        return false;
+    }
+}
@@ -0,0 +1,96 @@
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cheap checks that tell a document can't have tests before it's scanned, so the loader doesn't even show for it
+ * A file is skipped when it isn't a source file, when it's a production source of a project that has test sources,
+ * or when its text has none of the markers the selector needs, see TestSelector.mayContainTests
+ * The verdict is remembered for every file until its document changes, for at most MAX_FILES files
+ * Must be called under a read action
+ */
+public class TestPrefilter {
+
+    private static final int MAX_FILES = 256;
+    private static final Set<String> SOURCE_EXTENSIONS = new HashSet<>(Arrays.asList("java", "kt", "groovy"));
+
+    private final Map<VirtualFile, Verdict> verdicts = new LinkedHashMap<VirtualFile, Verdict>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<VirtualFile, Verdict> eldest) {
+            return size() > MAX_FILES;
+        }
+    };
+
+    /**
+     * @param file the file of the document, null if it has none
+     * @param selector the selector that is going to scan the document, null when it's going to be detected
+     * @return false if the document can't have tests, true if it has to be scanned to know
+     */
+    public synchronized boolean mayContainTests(Project project, VirtualFile file, Document document, TestSelector selector) {
+        if (file == null)
+            return hasMarkers(document.getCharsSequence(), selector);
+        long stamp = document.getModificationStamp();
+        Verdict verdict = verdicts.get(file);
+        if (verdict != null && verdict.stamp == stamp && verdict.selector == selector)
+            return verdict.may_contain_tests;
+        boolean may_contain_tests = isCandidate(project, file) && hasMarkers(document.getCharsSequence(), selector);
+        verdicts.put(file, new Verdict(stamp, selector, may_contain_tests));
+        if (!may_contain_tests)
+            Metrics.count(Metrics.FILES_SKIPPED, 1);
+        return may_contain_tests;
+    }
+
+    /** Forgets every verdict, the source roots may have changed */
+    public synchronized void clear() {
+        verdicts.clear();
+    }
+
+    private static boolean hasMarkers(CharSequence text, TestSelector selector) {
+        return selector != null ? selector.mayContainTests(text) : TestDiscovery.mayContainTests(text);
+    }
+
+    /**
+     * @param file the file, null if the document has none
+     * @return true if the file could have tests once they are written, whatever its text is now
+     */
+    public boolean isCandidate(Project project, VirtualFile file) {
+        return file == null || (isSource(file) && !isProductionSource(project, file));
+    }
+
+    private static boolean isSource(VirtualFile file) {
+        String extension = file.getExtension();
+        return !file.isDirectory() && extension != null && SOURCE_EXTENSIONS.contains(extension.toLowerCase());
+    }
+
+    /** Projects whose tests aren't in test source roots aren't told apart from their production sources */
+    private static boolean isProductionSource(Project project, VirtualFile file) {
+        ProjectFileIndex index = ProjectRootManager.getInstance(project).getFileIndex();
+        if (!index.isInSourceContent(file) || index.isInTestSourceContent(file))
+            return false;
+        for (VirtualFile root : ProjectRootManager.getInstance(project).getContentSourceRoots()) {
+            if (index.isInTestSourceContent(root))
+                return true;
+        }
+        return false;
+    }
+
+    private static class Verdict {
+        final long stamp;
+        final TestSelector selector;
+        final boolean may_contain_tests;
+
+        Verdict(long stamp, TestSelector selector, boolean may_contain_tests) {
+            this.stamp = stamp;
+            this.selector = selector;
+            this.may_contain_tests = may_contain_tests;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persistent index from the qualified names of the classes a test file mentions to the labels of the tests that mention them
+ * @see TestReferences
+ */
+public class TestReferenceIndex extends FileBasedIndexExtension<String, List<String>> {
+
+    public static final ID<String, List<String>> NAME = ID.create("TestSelector.TestReferences");
+
+    @NotNull
+    @Override
+    public ID<String, List<String>> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, List<String>, FileContent> getIndexer() {
+        return content -> {
+            String name = content.getFileName();
+            return TestReferences.findReferences(content.getContentAsText(), name.substring(0, name.length() - ".java".length()));
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<List<String>> getValueExternalizer() {
+        return new DataExternalizer<List<String>>() {
+            @Override
+            public void save(@NotNull DataOutput out, List<String> tests) throws IOException {
+                out.writeInt(tests.size());
+                for (String test : tests)
+                    out.writeUTF(test);
+            }
+
+            @Override
+            public List<String> read(@NotNull DataInput in) throws IOException {
+                int size = in.readInt();
+                List<String> tests = new ArrayList<>(size);
+                for (int i = 0; i < size; i++)
+                    tests.add(in.readUTF());
+                return tests;
+            }
+        };
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return file -> "java".equals(file.getExtension());
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    @Override
+    public int getVersion() {
+        return 3;
+    }
+}
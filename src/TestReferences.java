@@ -0,0 +1,124 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the classes each test of a test file mentions
+ * A test is taken to go from its declaration to the declaration of the next test, what comes before the first test
+ * (fields, set up) is mentioned by every test of the file
+ * Any capitalized identifier is taken as a class name and resolved the way the compiler would without knowing which classes
+ * exist: through a single type import, else in the package of the file and in every package imported on demand
+ * Doesn't depend on the IDE, so it can be used headless
+ */
+public class TestReferences {
+
+    private TestReferences(){}
+
+    /**
+     * @param text the source of a test class
+     * @param class_name the name of the class without its package, the name of the file
+     * @return the labels of the tests mentioning each qualified class name, com.foo.FooTest.test, empty if the source has no tests
+     */
+    public static Map<String, List<String>> findReferences(CharSequence text, String class_name) {
+        if (LineScanner.indexOf(text, "test", 0, text.length()) < 0
+                && LineScanner.indexOf(text, "Test", 0, text.length()) < 0)
+            return Collections.emptyMap();
+        LineScanner scanner = new LineScanner(text);
+        List<TestDescriptor> tests = TestDiscovery.findAllTests(scanner);
+        if (tests.isEmpty())
+            return Collections.emptyMap();
+        String package_name = TestDiscovery.findPackage(scanner);
+        Map<String, String> imported = new HashMap<>();
+        List<String> on_demand = new ArrayList<>();
+        //by the name the code uses, simple or qualified
+        Map<String, BitSet> references = new HashMap<>();
+        int test = -1;
+        int i = 0;
+        while (i < text.length()) {
+            while (test + 1 < tests.size() && tests.get(test + 1).getOffset() <= i)
+                test++;
+            char c = text.charAt(i);
+            //imports only name the classes, the code using them is what counts
+            if (c == 'i' && (i == 0 || text.charAt(i - 1) == '\n') && startsWith(text, i, "import ")) {
+                int start = i;
+                while (i < text.length() && text.charAt(i) != '\n')
+                    i++;
+                addImport(text.subSequence(start + "import ".length(), i).toString(), imported, on_demand);
+                continue;
+            }
+            if (!Character.isJavaIdentifierStart(c)) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < text.length() && Character.isJavaIdentifierPart(text.charAt(i)))
+                i++;
+            if (!Character.isUpperCase(c) || i - start < 2)
+                continue;
+            BitSet mentioned = references.computeIfAbsent(text.subSequence(getQualifierStart(text, start), i).toString(),
+                    key -> new BitSet());
+            if (test < 0)
+                mentioned.set(0, tests.size());
+            else
+                mentioned.set(test);
+        }
+        String prefix = (package_name != null ? package_name + "." + class_name : class_name) + ".";
+        Map<String, List<String>> found = new HashMap<>();
+        for (Map.Entry<String, BitSet> reference : references.entrySet()) {
+            List<String> labels = new ArrayList<>();
+            for (int k = reference.getValue().nextSetBit(0); k >= 0; k = reference.getValue().nextSetBit(k + 1))
+                labels.add(prefix + tests.get(k).getName());
+            for (String qualified_name : resolve(reference.getKey(), package_name, imported, on_demand))
+                found.computeIfAbsent(qualified_name, key -> new ArrayList<>()).addAll(labels);
+        }
+        return found;
+    }
+
+    /** Adds a single type import to imported, by its simple name, or the package of an import on demand to on_demand */
+    private static void addImport(String declaration, Map<String, String> imported, List<String> on_demand) {
+        int end = declaration.indexOf(';');
+        String name = (end < 0 ? declaration : declaration.substring(0, end)).trim();
+        //static imports name members, their classes aren't written in the code
+        if (name.startsWith("static ") || name.isEmpty())
+            return;
+        if (name.endsWith(".*"))
+            on_demand.add(name.substring(0, name.length() - ".*".length()));
+        else
+            imported.put(name.substring(name.lastIndexOf('.') + 1), name);
+    }
+
+    /** @return the start of the package written before the capitalized identifier at start, com.foo. in com.foo.Bar, else start */
+    private static int getQualifierStart(CharSequence text, int start) {
+        int qualifier = start;
+        while (qualifier > 1 && text.charAt(qualifier - 1) == '.') {
+            int segment = qualifier - 1;
+            while (segment > 0 && Character.isJavaIdentifierPart(text.charAt(segment - 1)))
+                segment--;
+            if (segment == qualifier - 1 || !Character.isLowerCase(text.charAt(segment)))
+                break;
+            qualifier = segment;
+        }
+        return qualifier;
+    }
+
+    /** @return the qualified names the class name can stand for */
+    static List<String> resolve(String name, String package_name, Map<String, String> imported, List<String> on_demand) {
+        if (name.indexOf('.') >= 0)
+            return Collections.singletonList(name);
+        String single = imported.get(name);
+        if (single != null)
+            return Collections.singletonList(single);
+        List<String> names = new ArrayList<>(on_demand.size() + 1);
+        names.add(package_name != null ? package_name + "." + name : name);
+        for (String package_on_demand : on_demand)
+            names.add(package_on_demand + "." + name);
+        return names;
+    }
+
+    private static boolean startsWith(CharSequence text, int offset, String prefix) {
+        return offset + prefix.length() <= text.length() && LineScanner.indexOf(text, prefix, offset, offset + prefix.length()) == offset;
+    }
+}
@@ -0,0 +1,70 @@
+import javax.swing.*;
+import java.util.BitSet;
+
+/**
+ * Filters the tests of the list by a search query
+ * Keystrokes are debounced, the names are matched on a pooled thread
+ * and only the tests whose visibility changes are handed back to the list
+ */
+public class TestSearch {
+
+    private static final int DELAY = 150;
+
+    private final TestListModel tests_model;
+    private final Timer timer;
+    private String query = "";
+    private AsyncTask search_task;
+
+    public TestSearch(TestListModel tests_model) {
+        this.tests_model = tests_model;
+        this.timer = new Timer(DELAY, e -> search());
+        this.timer.setRepeats(false);
+    }
+
+    /** Filters the tests by the query once the user stops typing */
+    public void schedule(String query) {
+        this.query = query;
+        timer.restart();
+    }
+
+    /** Filters the tests by the last query right away */
+    public void search() {
+        timer.stop();
+        if (search_task != null)
+            search_task.cancel();
+        TestFilter filter = TestFilter.compile(query);
+        if (filter == null) //do nothing, just wait for the user to put a correct pattern
+            return;
+        int modifications = tests_model.getModifications();
+        TestTable tests = tests_model.getTable();
+        BitSet hidden = new BitSet(tests.size());
+        for (int i = 0; i < tests.size(); i++)
+            hidden.set(i, tests_model.isHidden(i));
+        long start = System.nanoTime();
+        search_task = new AsyncTask() {
+            private final BitSet changed = new BitSet(tests.size());
+
+            @Override
+            protected void onPreExecute() {}
+
+            @Override
+            protected void doInBackground() {
+                TestTable.NameView name = tests.createView();
+                for (int i = 0; i < tests.size() && !isCancelled(); i++) {
+                    if (filter.matches(name.set(i)) == hidden.get(i))
+                        changed.set(i);
+                }
+            }
+
+            @Override
+            protected void onPostExecute() {
+                //the tests changed while searching, so search them again
+                if (!tests_model.applyFilter(filter, changed, modifications))
+                    search();
+                else
+                    Metrics.time(Metrics.SEARCH, start);
+            }
+        };
+        search_task.execute();
+    }
+}
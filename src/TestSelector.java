@@ -1,26 +1,54 @@
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.command.CommandProcessor;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.editor.LogicalPosition;
+import com.intellij.openapi.editor.RangeMarker;
 import com.intellij.openapi.editor.ScrollType;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.fileEditor.FileEditorManager;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
 
-import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
 
 public abstract class TestSelector {
 
-    protected JPanel tests_panel = new JPanel();
+    protected TestListModel tests_model = new TestListModel();
     protected HintTextField search_field = new HintTextField("");
     protected int tests = 0;
     protected Project project;
+    protected TestIndex index;
+    protected RunConfigurationFilter run_filter;
+    private boolean is_editing = false;
+    //the last document scanned to find the tests that aren't indexed, reused until it changes
+    private Document scanned_document;
+    private long scanned_stamp;
+    private List<TestDescriptor> scanned_tests;
+    //the qualified name of the class of the shown tests, found once when they're shown and not for every painted row
+    private String class_name;
+    private final DocumentListener document_listener = new DocumentListener() {
+        @Override
+        public void documentChanged(DocumentEvent event) {
+            if (!is_editing && index != null)
+                updateTests(event);
+        }
+    };
 
     public TestSelector(){}
 
-    public TestSelector(JPanel tests_panel, HintTextField search_field, Project project){
+    public TestSelector(TestListModel tests_model, HintTextField search_field, Project project){
         setProject(project);
-        setTestsPanel(tests_panel);
+        setTestsModel(tests_model);
         setSearch_field(search_field);
     }
 
@@ -28,52 +56,305 @@ public abstract class TestSelector {
         this.project = project;
     }
 
-    public void setTestsPanel(JPanel tests_panel) {
-        this.tests_panel = tests_panel;
+    public void setTestsModel(TestListModel tests_model) {
+        this.tests_model = tests_model;
     }
 
     public void setSearch_field(HintTextField search_field){
         this.search_field = search_field;
     }
 
+    /** @param run_filter receives the selection instead of the annotations of the sources, null to edit the sources */
+    public void setRunFilter(RunConfigurationFilter run_filter) {
+        this.run_filter = run_filter;
+    }
+
+    public RunConfigurationFilter getRunFilter() {
+        return run_filter;
+    }
+
     public int getTests() {
         return tests;
     }
 
-    /** Function used to create the list of checkboxes and add their listeners*/
-    public abstract  void fillTests();
+    /** @return false if the tests found don't come from the scanned document */
+    public boolean dependsOnDocument() {
+        return true;
+    }
+
+    /** @return false if the text can't have any test this selector finds, checked before the text is scanned */
+    public boolean mayContainTests(CharSequence text) {
+        return TestDiscovery.mayContainTests(text);
+    }
+
+    /** @return a new parser for the kind of tests of this selector */
+    protected abstract TestParser createParser();
 
     /**
-     * Retrieves a document line
-     * @param document the document from which the line should be retrieved
-     * @param start the starting offset of the document
-     * @return the line of the document or null if it's the end of the file
+     * Called on the swing thread before the document is scanned by findTests
+     * @param document the document that is going to be scanned
      */
-    protected String getDocumentLine(Document document, int start){
-        int end = start+1;
-        String s;
-        try {
-            while ((s = document.getText(new TextRange(start, end))).charAt(s.length() - 1) != '\n')
-                end++;
-            return s.substring(0, s.length() - 1);
-        }catch (IndexOutOfBoundsException e){
+    public void prepareScan(Document document) {}
+
+    /**
+     * Finds the tests of a document
+     * Runs on a background thread under a read action, so it must not touch any component
+     * @param document the document to be scanned, null when no editor is selected
+     * @param task the task running the scan, checked to stop early when it gets cancelled, can be null
+     * @return the tests found in the document or null if it can't be read yet, see prepareScan, then nothing is cached
+     */
+    public List<TestDescriptor> findTests(Document document, AsyncTask task) {
+        if (document == null)
+            return Collections.emptyList();
+        BooleanSupplier is_cancelled = task != null ? task::isCancelled : null;
+        CharSequence chars = document.getImmutableCharSequence();
+        if (ParallelTestScan.isLarge(chars))
+            return ParallelTestScan.findTests(chars, this::createParser, is_cancelled);
+        return TestDiscovery.findTests(new DocumentLineScanner(document), createParser(), is_cancelled);
+    }
+
+    /**
+     * Creates the index used to edit the annotations of the tests found by findTests
+     * Runs on the same background thread and read action as findTests
+     * @return the index or null if the tests don't belong to the document
+     */
+    public TestIndex createIndex(Document document, List<TestDescriptor> found) {
+        if (document == null)
             return null;
+        return new TestIndex(document, found);
+    }
+
+    /**
+     * Function used to fill the list of tests
+     * Runs on the swing thread with the tests found by findTests
+     * From then on the list follows the changes made to the document of the index
+     * @param found the tests to be shown
+     * @param index the index of the tests, used to edit their annotations
+     */
+    public void showTests(List<TestDescriptor> found, TestIndex index) {
+        setIndex(index);
+        search_field.setText("");
+        tests_model.setTests(found);
+        class_name = findClassName();
+        if (run_filter != null)
+            run_filter.restore(this, tests_model);
+        this.tests = found.size();
+    }
+
+    /** Stops following the document and releases the index */
+    public void dispose() {
+        setIndex(null);
+        scanned_document = null;
+        scanned_tests = null;
+        class_name = null;
+    }
+
+    private void setIndex(TestIndex index) {
+        if (this.index != null && this.index != index) {
+            this.index.getDocument().removeDocumentListener(document_listener);
+            this.index.dispose();
+        }
+        if (index != null && this.index != index)
+            index.getDocument().addDocumentListener(document_listener);
+        this.index = index;
+    }
+
+    /**
+     * Suppresses or unsuppresses a test when the user toggles it
+     * @param test the position of the test in the list
+     * @param selected true if the test should run
+     */
+    public void setTestSelected(int test, boolean selected) {
+        if (run_filter != null) {
+            tests_model.setSelected(test, selected);
+            run_filter.update(this, tests_model);
+            return;
+        }
+        long start = System.nanoTime();
+        if (!selected) {
+            ApplicationManager.getApplication().runWriteAction(() ->
+                            addSuppressed(test)
+            );
+        } else {
+            ApplicationManager.getApplication().runWriteAction(() ->
+                            removeSuppressed(test)
+            );
+        }
+        Metrics.time(Metrics.WRITE, start);
+        tests_model.setSelected(test, selected);
+    }
+
+    /**
+     * Updates the list after a change made by the user to the document
+     * Only the lines between the last test above the change and the first test below it are scanned again
+     * and only the tests declared there are replaced. The tests around the change are found with a binary search
+     * over the index, so the work depends on the size of the change and not on the number of tests
+     */
+    protected void updateTests(DocumentEvent event) {
+        long start_time = System.nanoTime();
+        Document document = event.getDocument();
+        int first = document.getLineNumber(event.getOffset());
+        int last = document.getLineNumber(event.getOffset() + event.getNewLength());
+        int count = index.size();
+        //the annotation state is reset after every test, so the scan can start right below the last one above the change
+        int from = index.findTest(document.getLineStartOffset(first), true);
+        int start_line = from > 0 ? getDeclarationLine(document, from - 1) + 1 : 0;
+        if (start_line == 0)
+            from = 0;
+        //the first test below the change, the ones after it are matched as the scan gets to them
+        int known = index.findTest(document.getLineEndOffset(last) + 1, false);
+        int known_line = known < count ? getDeclarationLine(document, known) : -1;
+        TestParser parser = createParser();
+        LineScanner scanner = new DocumentLineScanner(document);
+        List<TestDescriptor> found = new ArrayList<>();
+        int to = count;
+        int lines_scanned = 0;
+        for (int i = start_line; i < scanner.getLineCount(); i++) {
+            lines_scanned++;
+            TestDescriptor test = parser.parseLine(scanner.getChars(), scanner.getLineStartOffset(i), scanner.getLineEndOffset(i));
+            if (test == null)
+                continue;
+            found.add(test);
+            //below the change, a test that was already known means the rest of the list is still right
+            while (known < count && known_line < i) {
+                known++;
+                known_line = known < count ? getDeclarationLine(document, known) : -1;
+            }
+            if (known < count && known_line == i) {
+                to = known + 1;
+                break;
+            }
+        }
+
+        replaceTests(from, to, found);
+        Metrics.count(Metrics.LINES_SCANNED, lines_scanned);
+        Metrics.time(Metrics.UPDATE, start_time);
+    }
+
+    /** @return the line declaring the test of the index or -1 if its declaration was deleted */
+    private int getDeclarationLine(Document document, int test) {
+        int offset = index.getDeclarationOffset(test);
+        return offset < 0 ? -1 : document.getLineNumber(offset);
+    }
+
+    /**
+     * Replaces the tests from position from (inclusive) to position to (exclusive) by the found tests
+     * When the same tests were found again, like after typing inside a test, the list is left as it is
+     */
+    protected void replaceTests(int from, int to, List<TestDescriptor> found) {
+        index.replace(from, to, found);
+        //the edit may have changed the package
+        class_name = findClassName();
+        if (!isShown(from, to, found)) {
+            tests_model.replace(from, to, found);
+            if (run_filter != null)
+                run_filter.refresh(this, tests_model);
+        } else if (run_filter == null) { //the sources tell which tests run
+            for (int k = 0; k < found.size(); k++)
+                tests_model.setSelected(from + k, !found.get(k).isSuppressed());
+        }
+        this.tests = tests_model.getTestCount();
+    }
+
+    /** @return true if the tests from position from to position to have the names of the found tests */
+    private boolean isShown(int from, int to, List<TestDescriptor> found) {
+        if (to - from != found.size())
+            return false;
+        TestTable.NameView name = tests_model.getTable().createView();
+        for (int k = 0; k < found.size(); k++) {
+            if (!name.set(from + k).contentEquals(found.get(k).getName()))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the offset of the line where the test method is declared
+     * @param document the document where the test should be
+     * @param test the name of the test
+     * @return the starting offset of the line or -1 if the test wasn't found
+     */
+    protected int findTestOffset(Document document, String test){
+        for (TestDescriptor found : scanDocument(document)) {
+            if (found.getName().equals(test))
+                return found.getOffset();
+        }
+        LineScanner scanner = new DocumentLineScanner(document);
+        int line = scanner.findLine(test + "(");
+        return line < 0 ? -1 : scanner.getLineStartOffset(line);
+    }
+
+    /**
+     * Finds the offset of the line where the test is declared, using the index while it's still valid
+     * @param document the document where the test should be
+     * @param test the position of the test in the list
+     * @return the starting offset of the line or -1 if the test wasn't found
+     */
+    protected int getTestOffset(Document document, int test){
+        boolean indexed = isIndexed(document, test);
+        int offset = indexed ? index.getDeclarationOffset(test) : -1;
+        if (offset < 0) {
+            offset = findTestOffset(document, tests_model.getName(test));
+            if (indexed && offset >= 0)
+                index.putDeclaration(test, offset);
         }
+        return offset;
+    }
+
+    /** @return true if the index follows the document and knows the test */
+    private boolean isIndexed(Document document, int test){
+        return index != null && index.getDocument() == document && test < index.size();
+    }
+
+    /**
+     * Finds the @Suppress annotation of a test, using the index or else the tests the parsers find in the document
+     * so the annotation is found wherever the parsers accept it, like above @Test
+     * @param document the document where the test is
+     * @param test the position of the test in the list
+     * @param offset the offset of the line declaring the test
+     * @return the offset of the annotation or -1 if the test isn't suppressed
+     */
+    protected int getSuppressOffset(Document document, int test, int offset){
+        if (isIndexed(document, test)) {
+            RangeMarker marker = index.getSuppression(test);
+            if (marker != null)
+                return marker.getStartOffset();
+            if (index.getDeclarationOffset(test) == offset)
+                return -1;
+        }
+        for (TestDescriptor found : scanDocument(document)) {
+            if (found.getOffset() == offset)
+                return found.getSuppressOffset();
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the tests of a document that isn't indexed, with the parser of this selector or else with all of them
+     * @return the tests, scanned again only when the document changed since the last call
+     */
+    private List<TestDescriptor> scanDocument(Document document){
+        if (document != scanned_document || document.getModificationStamp() != scanned_stamp) {
+            TestParser parser = createParser();
+            LineScanner scanner = new DocumentLineScanner(document);
+            scanned_tests = parser != null ? TestDiscovery.findTests(scanner, parser, null) : TestDiscovery.findAllTests(scanner);
+            scanned_document = document;
+            scanned_stamp = document.getModificationStamp();
+        }
+        return scanned_tests;
     }
 
     /**
      * Scrolls editor to the method with the name of the test
-     * @param test the test to be found
+     * @param test the position of the test in the list
      */
-    protected void gotoText(String test){
+    protected void gotoText(int test){
         Editor editor = FileEditorManager.getInstance(project).getSelectedTextEditor();
         if(editor != null) {
             Document document = editor.getDocument();
-            String line;
-            int offset = 0;
-            while (!(line = getDocumentLine(document, offset)).contains(test + "(")) {
-                offset += line.length() + 1;
-            }
+            int offset = getTestOffset(document, test);
+            if (offset < 0)
+                return;
             editor.getScrollingModel().scrollTo(new LogicalPosition(document.getLineNumber(offset), 0), ScrollType.MAKE_VISIBLE);
             editor.offsetToVisualPosition(offset);
             editor.getCaretModel().moveToOffset(offset);
@@ -81,40 +362,182 @@ public abstract class TestSelector {
     }
 
     /** Add @Suppressed annotation */
-    protected void addSuppressed(String test) {
-        Editor editor = FileEditorManager.getInstance(project).getSelectedTextEditor();
-        Document document = editor.getDocument();
-        String line;
-        int offset = 0;
-        int supress_offset = "@Suppress".length()+1;
-        while (!(line = getDocumentLine(document, offset)).contains(test + "(")) {
-            offset += line.length()+1;
+    protected void addSuppressed(int test) {
+        String name = tests_model.getName(test);
+        Document document = getEditedDocument(test);
+        if (document == null)
+            return;
+        int offset = getTestOffset(document, test);
+        if (offset < 0 || getSuppressOffset(document, test, offset) >= 0)
+            return;
+        CommandProcessor.getInstance().executeCommand(project, () ->
+                applyEdit(document, SuppressEdit.insert(name, offset))
+                , "", "");
+    }
+
+    /**
+     * @param suppress_offset the offset of the annotation, from getSuppressOffset
+     * @return the edit deleting the whole annotation, over the range the index marks when it has one
+     */
+    private SuppressEdit deleteSuppression(Document document, int test, String name, int suppress_offset){
+        LineScanner scanner = new DocumentLineScanner(document);
+        RangeMarker marker = isIndexed(document, test) ? index.getSuppression(test) : null;
+        if (marker != null && marker.getStartOffset() == suppress_offset)
+            return SuppressEdit.delete(name, scanner, suppress_offset, marker.getEndOffset());
+        return SuppressEdit.delete(name, scanner, suppress_offset);
+    }
+
+    /** Remove @Suppressed annotation */
+    protected void removeSuppressed(int test) {
+        String name = tests_model.getName(test);
+        Document document = getEditedDocument(test);
+        if (document == null)
+            return;
+        int offset = getTestOffset(document, test);
+        int suppress_offset = offset < 0 ? -1 : getSuppressOffset(document, test, offset);
+        if (suppress_offset < 0)
+            return;
+        CommandProcessor.getInstance().executeCommand(project, () ->
+                applyEdit(document, deleteSuppression(document, test, name, suppress_offset))
+                , "", "");
+    }
+
+    /**
+     * Suppresses or unsuppresses every shown test so that only the enabled ones are left to run
+     * All the annotations are edited in a single write action and command, so it's undone in one step
+     * @param enabled the names of the tests that should run
+     */
+    public void applySelection(Set<String> enabled) {
+        if (run_filter != null) {
+            tests_model.setSelected(enabled);
+            run_filter.update(this, tests_model);
+            return;
         }
-        final int finalLine_num = offset;
-        if (!document.getText(new TextRange(offset-supress_offset, offset)).contains("@Suppress")) {
-            CommandProcessor.getInstance().executeCommand(project, () -> {
-                document.insertString(finalLine_num - 1, "\n");
-                document.insertString(finalLine_num, "\t@Suppress");
-            }, "", "");
+        Map<Document, List<SuppressEdit>> edits = new LinkedHashMap<>();
+        for (int k = 0; k < tests_model.getTestCount(); k++) {
+            String test = tests_model.getName(k);
+            Document document = getEditedDocument(k);
+            int offset = document != null ? getTestOffset(document, k) : -1;
+            if (offset < 0)
+                continue;
+            int suppress_offset = getSuppressOffset(document, k, offset);
+            SuppressEdit edit = null;
+            if (enabled.contains(test) && suppress_offset >= 0)
+                edit = deleteSuppression(document, k, test, suppress_offset);
+            else if (!enabled.contains(test) && suppress_offset < 0)
+                edit = SuppressEdit.insert(test, offset);
+            if (edit != null)
+                edits.computeIfAbsent(document, key -> new ArrayList<>()).add(edit);
         }
+        applyEdits(edits, Constants.CMD_SELECT_TESTS);
+        tests_model.setSelected(enabled);
     }
 
-    /** Remove @Suppressed annotation */
-    protected void removeSuppressed(String test) {
-        Editor editor = FileEditorManager.getInstance(project).getSelectedTextEditor();
-        Document document = editor.getDocument();
-        String line;
-        int offset = 0;
-        int supress_offset = "\t@Suppress".length()+1;
-        while (!(line = getDocumentLine(document, offset)).contains(test + "(")) {
-            offset += line.length()+1;
+    /**
+     * Selects tests of any file in the run filter, the sources are left as they are and the shown tests follow the selection
+     * @param selection whether each test should run, by label
+     * @return the labels of the tests whose selection changed
+     */
+    public Set<String> applyRunSelection(Map<String, Boolean> selection) {
+        Set<String> changed = run_filter.select(selection);
+        run_filter.restore(this, tests_model);
+        run_filter.update(this, tests_model);
+        return changed;
+    }
+
+    /**
+     * Applies annotation edits to several documents in a single write action and command, so they're undone in one step
+     * The index is kept in sync but the shown selection isn't updated
+     * Nothing is edited while the selection goes to a run filter, the sources must be kept unchanged then
+     * @param edits the edits of each document
+     * @param command the name of the command shown by undo
+     */
+    public void applyEdits(Map<Document, List<SuppressEdit>> edits, String command) {
+        if (edits.isEmpty() || run_filter != null)
+            return;
+        long start = System.nanoTime();
+        CommandProcessor.getInstance().executeCommand(project, () ->
+                ApplicationManager.getApplication().runWriteAction(() -> {
+                    for (Map.Entry<Document, List<SuppressEdit>> document_edits : edits.entrySet()) {
+                        Document document = document_edits.getKey();
+                        SuppressEdit.sort(document_edits.getValue());
+                        for (SuppressEdit edit : document_edits.getValue())
+                            applyEdit(document, edit);
+                    }
+                }), command, null);
+        Metrics.time(Metrics.WRITE, start);
+    }
+
+    /** Suppresses or unsuppresses every shown test */
+    public void selectAll(boolean selected) {
+        Set<String> enabled = new HashSet<>();
+        if (selected) {
+            for (int k = 0; k < tests_model.getTestCount(); k++)
+                enabled.add(tests_model.getName(k));
         }
-        final int finalLine_num = offset;
-        if (document.getText(new TextRange(offset-supress_offset, offset)).contains("@Suppress")) {
-            CommandProcessor.getInstance().executeCommand(project, () ->
-                    document.deleteString(finalLine_num - supress_offset, finalLine_num)
-                    , "", "");
+        applySelection(enabled);
+    }
+
+    /**
+     * Applies an annotation edit to the document and keeps the index in sync with it
+     * The edited annotation belongs to the first test declared after it, or to the test declared right before it
+     * when the declaration starts above the annotation, like a line of other annotations
+     */
+    private void applyEdit(Document document, SuppressEdit edit){
+        int test = index != null && index.getDocument() == document ? index.findTest(edit.getStart(), false) : -1;
+        if (test > 0 && !edit.isInsert()) {
+            RangeMarker marker = index.getSuppression(test - 1);
+            if (marker != null && marker.getStartOffset() >= edit.getStart() && marker.getEndOffset() <= edit.getEnd())
+                test--;
+        }
+        boolean indexed = test >= 0 && test < index.size();
+        if (indexed && !edit.isInsert())
+            index.removeSuppression(test);
+        is_editing = true;
+        try {
+            document.replaceString(edit.getStart(), edit.getEnd(), edit.getReplacement());
+        } finally {
+            is_editing = false;
         }
+        if (indexed && edit.isInsert())
+            index.putSuppression(test, edit.getStart() + 1);
     }
-}
 
+    /**
+     * @param test the position of a shown test
+     * @return the name that identifies the test in the whole project, com.foo.FooTest.test
+     */
+    public String getLabel(int test){
+        String name = tests_model.getName(test);
+        return class_name != null ? class_name + "." + name : name;
+    }
+
+    /** @return the qualified name of the class the shown tests are in, com.foo.FooTest, null if they aren't in a file */
+    private String findClassName(){
+        Document document = getEditedDocument(0);
+        VirtualFile file = document != null ? FileDocumentManager.getInstance().getFile(document) : null;
+        if (file == null)
+            return null;
+        String package_name = TestDiscovery.findPackage(new DocumentLineScanner(document));
+        return package_name != null ? package_name + "." + file.getNameWithoutExtension() : file.getNameWithoutExtension();
+    }
+
+    /**
+     * @param test the position of a shown test
+     * @return the test as an instrumentation method filter, com.foo.FooTest#test
+     */
+    public String getMethodFilter(int test){
+        return ShardPlanner.getMethodFilter(getLabel(test));
+    }
+
+    /**
+     * @param test the position of the test whose annotations are going to be edited
+     * @return the document the tests were found in, or the one of the selected editor
+     */
+    protected Document getEditedDocument(int test){
+        if (index != null)
+            return index.getDocument();
+        Editor editor = FileEditorManager.getInstance(project).getSelectedTextEditor();
+        return editor != null ? editor.getDocument() : null;
+    }
+}
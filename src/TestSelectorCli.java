@@ -0,0 +1,273 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Command line front end, lists the tests of a source tree or suppresses them without the IDE
+ * The files are scanned in parallel on the common fork join pool
+ *
+ * list <source dir> [query]        prints the tests, the suppressed ones are marked
+ * suppress <source dir> <query>    adds @Suppress to the tests matching the query
+ * unsuppress <source dir> <query>  removes @Suppress from the tests matching the query
+ * only <source dir> <query>        leaves only the tests matching the query to run
+ * shards <source dir> <count> [reports dir]
+ *                                  splits the tests that run into shards of about the same duration, see ShardPlanner
+ *                                  and prints the filter of each one, the durations come from the TEST-*.xml reports
+ *
+ * The query is matched against "com.foo.FooTest.test" like the search field of the plugin does
+ * The sources are read as UTF-8 unless --encoding names their charset. A file that doesn't decode cleanly
+ * is reported and never rewritten, so its text can't be corrupted
+ */
+public class TestSelectorCli {
+
+    private static final String USAGE = "usage: TestSelectorCli [--encoding charset] list|suppress|unsuppress|only <source dir> [query]\n"
+            + "       TestSelectorCli [--encoding charset] shards <source dir> <count> [reports dir]";
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /** @return the exit code, 0 on success, 1 if a file couldn't be read or written and 2 on bad arguments */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        Charset charset = StandardCharsets.UTF_8;
+        List<String> arguments = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].equals("--encoding")) {
+                arguments.add(args[i]);
+            } else if (i + 1 == args.length) {
+                err.println(USAGE);
+                return 2;
+            } else {
+                try {
+                    charset = Charset.forName(args[++i]);
+                } catch (IllegalArgumentException e) {
+                    err.println("unknown encoding: " + args[i]);
+                    return 2;
+                }
+            }
+        }
+        args = arguments.toArray(new String[0]);
+        if (args.length < 2 || (args.length < 3 && !args[0].equals("list"))) {
+            err.println(USAGE);
+            return 2;
+        }
+        if (args[0].equals("shards"))
+            return shards(args, charset, out, err);
+        TestFilter filter = TestFilter.compile(args.length > 2 ? args[2] : "");
+        if (filter == null) {
+            err.println("invalid query: " + args[2]);
+            return 2;
+        }
+        Predicate<String> matches = filter::matches;
+        Path root = Paths.get(args[1]);
+        List<Path> files;
+        try {
+            files = findSources(root);
+        } catch (IOException e) {
+            err.println("can't read " + root + ": " + e.getMessage());
+            return 1;
+        }
+
+        List<Result> results;
+        switch (args[0]) {
+            case "list":
+                results = scan(files, charset, null, matches);
+                break;
+            case "suppress":
+                results = scan(files, charset, (label, test) -> !matches.test(label) && !test.isSuppressed(), matches);
+                break;
+            case "unsuppress":
+                results = scan(files, charset, (label, test) -> matches.test(label) || !test.isSuppressed(), matches);
+                break;
+            case "only":
+                results = scan(files, charset, (label, test) -> matches.test(label), matches);
+                break;
+            default:
+                err.println(USAGE);
+                return 2;
+        }
+
+        int code = 0;
+        int tests = 0;
+        int suppressed = 0;
+        int edits = 0;
+        for (Result result : results) {
+            if (result.error != null) {
+                err.println("can't edit " + result.file + ": " + result.error.getMessage());
+                code = 1;
+                continue;
+            }
+            for (String line : result.lines)
+                out.println(line);
+            tests += result.tests;
+            suppressed += result.suppressed;
+            edits += result.edits;
+        }
+        err.println(tests + " tests in " + files.size() + " files, " + suppressed + " suppressed"
+                + (args[0].equals("list") ? "" : ", " + edits + " edited"));
+        return code;
+    }
+
+    /** Prints the filter of every shard on its own line and what each one is expected to take on the error stream */
+    private static int shards(String[] args, Charset charset, PrintStream out, PrintStream err) {
+        int count;
+        try {
+            count = Integer.parseInt(args[2]);
+        } catch (NumberFormatException e) {
+            count = 0;
+        }
+        if (count < 1) {
+            err.println("invalid number of shards: " + args[2]);
+            return 2;
+        }
+        Path root = Paths.get(args[1]);
+        Path reports = Paths.get(args.length > 3 ? args[3] : args[1]);
+        List<Path> files;
+        TestHistory history = new TestHistory();
+        try {
+            files = findSources(root);
+            history.importReports(reports);
+        } catch (IOException e) {
+            err.println("can't read " + e.getMessage());
+            return 1;
+        }
+        List<String> labels = new ArrayList<>();
+        List<String> methods = new ArrayList<>();
+        int code = 0;
+        for (Result result : scan(files, charset, null, label -> false)) {
+            if (result.error != null) {
+                err.println("can't read " + result.file + ": " + result.error.getMessage());
+                code = 1;
+            }
+            labels.addAll(result.labels);
+            methods.addAll(result.methods);
+        }
+        List<ShardPlanner.Shard> shards = ShardPlanner.plan(methods, history.estimate(labels), count);
+        for (int k = 0; k < shards.size(); k++) {
+            out.println(shards.get(k).getFilter());
+            err.println("shard " + (k + 1) + ": " + shards.get(k).getTests().size() + " tests, "
+                    + TestHistory.format(shards.get(k).getMillis()));
+        }
+        err.println(methods.size() + " tests in " + shards.size() + " shards, " + TestHistory.format(ShardPlanner.getMillis(shards))
+                + " instead of " + TestHistory.format(history.getExpectedMillis(labels)));
+        return code;
+    }
+
+    /** @return the java files under the directory, sorted */
+    private static List<Path> findSources(Path root) throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            return walk.filter(path -> path.toString().endsWith(".java") && Files.isRegularFile(path))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Finds the tests of every file and edits their annotations
+     * @param charset the encoding of the files, they are written back with it
+     * @param enabled tells if a test should run given its label, null to only list the tests
+     * @param matches tells if a test is listed given its label
+     */
+    private static List<Result> scan(List<Path> files, Charset charset, Selection enabled, Predicate<String> matches) {
+        return files.parallelStream()
+                .map(file -> scanFile(file, charset, enabled, matches))
+                .collect(Collectors.toList());
+    }
+
+    private static Result scanFile(Path file, Charset charset, Selection enabled, Predicate<String> matches) {
+        Result result = new Result(file);
+        try {
+            String text;
+            try {
+                text = decode(Files.readAllBytes(file), charset);
+            } catch (CharacterCodingException e) {
+                throw new IOException("not valid " + charset.name() + ", set its charset with --encoding", e);
+            }
+            if (!TestDiscovery.mayContainTests(text))
+                return result;
+            LineScanner scanner = new LineScanner(text);
+            List<TestDescriptor> found = TestDiscovery.findAllTests(scanner);
+            String name = file.getFileName().toString();
+            String class_name = name.substring(0, name.length() - ".java".length());
+            String package_name = found.isEmpty() ? null : TestDiscovery.findPackage(scanner);
+            String qualified_name = package_name != null ? package_name + "." + class_name : class_name;
+            List<SuppressEdit> edits = enabled == null ? null : SuppressEdit.select(scanner, found,
+                    test -> enabled.isEnabled(qualified_name + "." + test.getName(), test));
+            for (TestDescriptor test : found) {
+                String label = qualified_name + "." + test.getName();
+                boolean is_suppressed = enabled != null ? !enabled.isEnabled(label, test) : test.isSuppressed();
+                result.tests++;
+                if (is_suppressed) {
+                    result.suppressed++;
+                } else {
+                    result.labels.add(label);
+                    result.methods.add(qualified_name + "#" + test.getName());
+                }
+                if (enabled == null ? matches.test(label) : is_suppressed != test.isSuppressed())
+                    result.lines.add(file + ":" + (scanner.getLineNumber(test.getOffset()) + 1) + ": " + label
+                            + (is_suppressed ? " (suppressed)" : ""));
+            }
+            if (edits != null && !edits.isEmpty()) {
+                Files.write(file, encode(SuppressEdit.apply(text, edits), charset));
+                result.edits = edits.size();
+            }
+        } catch (IOException e) {
+            result.error = e;
+        }
+        return result;
+    }
+
+    /** @return the text of the bytes, or throws if they aren't all valid in the charset, instead of replacing them */
+    private static String decode(byte[] bytes, Charset charset) throws CharacterCodingException {
+        return charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT)
+                .decode(ByteBuffer.wrap(bytes))
+                .toString();
+    }
+
+    private static byte[] encode(String text, Charset charset) throws CharacterCodingException {
+        ByteBuffer buffer = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT)
+                .encode(CharBuffer.wrap(text));
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /** Tells if a test should run after the edit */
+    private interface Selection {
+        boolean isEnabled(String label, TestDescriptor test);
+    }
+
+    /** The tests of a file, the lines to be printed are only built by the worker that scanned it */
+    private static class Result {
+        final Path file;
+        final List<String> lines = new ArrayList<>();
+        //the tests that run, as com.foo.FooTest.test labels and as method filters
+        final List<String> labels = new ArrayList<>();
+        final List<String> methods = new ArrayList<>();
+        int tests = 0;
+        int suppressed = 0;
+        int edits = 0;
+        IOException error;
+
+        Result(Path file) {
+            this.file = file;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+import com.intellij.openapi.project.Project;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the tests of files that mix more than one kind of tests
+ * Every line goes through the parsers of all the selectors, a line declares at most one test
+ */
+public class TestSelectorMixed extends TestSelector {
+
+    private final List<TestSelector> selectors;
+
+    public TestSelectorMixed(TestListModel tests_model, HintTextField search_field, Project project,
+                             List<TestSelector> selectors) {
+        super(tests_model, search_field, project);
+        this.selectors = selectors;
+    }
+
+    @Override
+    public boolean mayContainTests(CharSequence text) {
+        for (TestSelector selector : selectors) {
+            if (selector.mayContainTests(text))
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    protected TestParser createParser() {
+        List<TestParser> parsers = new ArrayList<>();
+        for (TestSelector selector : selectors)
+            parsers.add(selector.createParser());
+        return new MixedParser(parsers);
+    }
+
+    /** Goes through the parsers of all the selectors, the line is tokenized once for the ones that work on tokens */
+    private static class MixedParser implements TestParser {
+        private final List<TestParser> parsers;
+        private final TestTokenizer tokenizer = new TestTokenizer();
+
+        MixedParser(List<TestParser> parsers) {
+            this.parsers = parsers;
+        }
+
+        @Override
+        public TestDescriptor parseLine(CharSequence line, int offset) {
+            return parse(line, 0, line.length(), offset);
+        }
+
+        @Override
+        public TestDescriptor parseLine(CharSequence chars, int start, int end) {
+            return parse(chars, start, end, start);
+        }
+
+        private TestDescriptor parse(CharSequence chars, int start, int end, int offset) {
+            tokenizer.scan(chars, start, end);
+            TestDescriptor found = null;
+            for (TestParser parser : parsers) {
+                TestDescriptor test = parser instanceof TokenTestParser
+                        ? ((TokenTestParser) parser).parseTokens(tokenizer, chars, offset, offset - start)
+                        : parser.parseLine(chars.subSequence(start, end), offset);
+                if (found == null)
+                    found = test;
+            }
+            return found;
+        }
+
+        @Override
+        public boolean hasSameState(TestParser other) {
+            if (!(other instanceof MixedParser) || ((MixedParser) other).parsers.size() != parsers.size())
+                return false;
+            for (int i = 0; i < parsers.size(); i++) {
+                if (!parsers.get(i).hasSameState(((MixedParser) other).parsers.get(i)))
+                    return false;
+            }
+            return true;
+        }
+    }
+}
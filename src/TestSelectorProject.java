@@ -0,0 +1,95 @@
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lists the tests of every test class of the project, read from the test catalog instead of the selected editor
+ * Tests are shown as com.foo.FooTest.testName and their annotations are edited in the file they are declared in
+ * Classes with the same qualified name in different modules are all listed, the file of every test is kept by its position
+ */
+public class TestSelectorProject extends TestSelector {
+
+    //the file of every shown test, at its position in the list
+    private VirtualFile[] files = new VirtualFile[0];
+    //the files of the last tests found, until they are shown
+    private volatile VirtualFile[] found_files;
+
+    public TestSelectorProject(TestListModel tests_model, HintTextField search_field, Project project) {
+        super(tests_model, search_field, project);
+    }
+
+    @Override
+    public boolean dependsOnDocument() {
+        return false;
+    }
+
+    /** Tests are read from the catalog, so there is no line parser */
+    @Override
+    protected TestParser createParser() {
+        return null;
+    }
+
+    @Override
+    public List<TestDescriptor> findTests(Document document, AsyncTask task) {
+        List<TestCatalog.Entry> entries = TestCatalog.getTests(project, task);
+        VirtualFile[] entry_files = new VirtualFile[entries.size()];
+        List<TestDescriptor> found = new ArrayList<>(entries.size());
+        for (TestCatalog.Entry entry : entries) {
+            TestDescriptor test = entry.getTest();
+            entry_files[found.size()] = entry.getFile();
+            found.add(new TestDescriptor(entry.getLabel(), test.getOffset(), test.getSuppressOffset()));
+        }
+        found_files = entry_files;
+        return Collections.unmodifiableList(found);
+    }
+
+    /** The tests come from many files, so there is no index of a single document */
+    @Override
+    public TestIndex createIndex(Document document, List<TestDescriptor> found) {
+        return null;
+    }
+
+    @Override
+    public void showTests(List<TestDescriptor> found, TestIndex index) {
+        VirtualFile[] shown = found_files;
+        files = shown != null && shown.length == found.size() ? shown : new VirtualFile[found.size()];
+        found_files = null;
+        super.showTests(found, index);
+    }
+
+    /** The tests are already shown by their label */
+    @Override
+    public String getLabel(int test) {
+        return tests_model.getName(test);
+    }
+
+    @Override
+    protected Document getEditedDocument(int test) {
+        VirtualFile file = test < files.length ? files[test] : null;
+        if (file == null || !file.isValid())
+            return null;
+        return FileDocumentManager.getInstance().getDocument(file);
+    }
+
+    /** The test is looked for by the name of its method, without the class */
+    @Override
+    protected int findTestOffset(Document document, String test) {
+        return super.findTestOffset(document, test.substring(test.lastIndexOf('.') + 1));
+    }
+
+    /** Opens the file of the test at its declaration */
+    @Override
+    protected void gotoText(int test) {
+        Document document = getEditedDocument(test);
+        if (document == null)
+            return;
+        int offset = getTestOffset(document, test);
+        new OpenFileDescriptor(project, files[test], Math.max(offset, 0)).navigate(true);
+    }
+}
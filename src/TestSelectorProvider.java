@@ -0,0 +1,25 @@
+import com.intellij.openapi.extensions.ExtensionPointName;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+
+/**
+ * A kind of tests the plugin can find, registered through the testSelector extension point
+ */
+public interface TestSelectorProvider {
+
+    ExtensionPointName<TestSelectorProvider> EP_NAME =
+            ExtensionPointName.create("com.yourcompany.unique.plugin.id.testSelector");
+
+    /** @return the name shown in the tool window */
+    String getName();
+
+    /**
+     * Cheap check of whether a file may have this kind of tests, used to pick the selector automatically
+     * May be called from any thread, at the same time as the checks of other providers
+     * @param file the file, null if the document has no file
+     * @param text the text of the file
+     */
+    boolean matches(VirtualFile file, CharSequence text);
+
+    TestSelector createSelector(TestListModel tests_model, HintTextField search_field, Project project);
+}
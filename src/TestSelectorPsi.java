@@ -0,0 +1,124 @@
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds the tests in the syntax tree the IDE already keeps for java files
+ * A method is a test when it's annotated with @Test, or when it's a public void method without parameters
+ * whose name starts with "test". Tests annotated with @Ignore or @Disabled never run, so they aren't listed
+ */
+public class TestSelectorPsi extends TestSelector {
+
+    private boolean is_update_pending = false;
+
+    public TestSelectorPsi(TestListModel tests_model, HintTextField search_field, Project project) {
+        super(tests_model, search_field, project);
+    }
+
+    /** Methods named test... are tests too, without any annotation */
+    @Override
+    public boolean mayContainTests(CharSequence text) {
+        return TestDiscovery.mentionsTest(text);
+    }
+
+    /** Tests are read from the syntax tree, so there is no line parser */
+    @Override
+    protected TestParser createParser() {
+        return null;
+    }
+
+    /** The syntax tree is only up to date once the document is committed */
+    @Override
+    public void prepareScan(Document document) {
+        PsiDocumentManager.getInstance(project).commitDocument(document);
+    }
+
+    /** @return null while the document isn't committed, the syntax tree would miss the last changes */
+    @Override
+    public List<TestDescriptor> findTests(Document document, AsyncTask task) {
+        if (document == null)
+            return Collections.emptyList();
+        if (!PsiDocumentManager.getInstance(project).isCommitted(document))
+            return null;
+        PsiFile file = PsiDocumentManager.getInstance(project).getPsiFile(document);
+        if (!(file instanceof PsiJavaFile))
+            return Collections.emptyList();
+        List<TestDescriptor> found = new ArrayList<>();
+        file.accept(new JavaRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitMethod(PsiMethod method) {
+                if (task != null && task.isCancelled()) {
+                    stopWalking();
+                    return;
+                }
+                TestDescriptor test = createTest(document, method);
+                if (test != null)
+                    found.add(test);
+            }
+        });
+        if (task != null && task.isCancelled())
+            return Collections.emptyList();
+        return Collections.unmodifiableList(found);
+    }
+
+    /** The whole file is read again once the change reaches the syntax tree, which the IDE updates incrementally */
+    @Override
+    protected void updateTests(DocumentEvent event) {
+        if (is_update_pending)
+            return;
+        is_update_pending = true;
+        Document document = event.getDocument();
+        PsiDocumentManager.getInstance(project).performWhenAllCommitted(() -> {
+            is_update_pending = false;
+            List<TestDescriptor> found = index != null && index.getDocument() == document ? findTests(document, null) : null;
+            if (found != null)
+                replaceTests(0, tests_model.getTestCount(), found);
+        });
+    }
+
+    /** @return the test declared by the method or null if the method isn't a test */
+    private TestDescriptor createTest(Document document, PsiMethod method) {
+        PsiIdentifier identifier = method.getNameIdentifier();
+        PsiModifierList modifiers = method.getModifierList();
+        if (identifier == null || method.isConstructor())
+            return null;
+        boolean is_test = false;
+        TextRange suppress = null;
+        for (PsiAnnotation annotation : modifiers.getAnnotations()) {
+            String name = getSimpleName(annotation);
+            if ("Test".equals(name))
+                is_test = true;
+            else if ("Suppress".equals(name))
+                suppress = annotation.getTextRange();
+            else if ("Ignore".equals(name) || "Disabled".equals(name))
+                return null;
+        }
+        if (!is_test) {
+            is_test = method.getName().startsWith("test")
+                    && modifiers.hasModifierProperty(PsiModifier.PUBLIC)
+                    && !modifiers.hasModifierProperty(PsiModifier.STATIC)
+                    && PsiType.VOID.equals(method.getReturnType())
+                    && method.getParameterList().getParametersCount() == 0;
+        }
+        if (!is_test)
+            return null;
+        //the signature can be split over several lines, the annotation goes above its first line, after the doc comment
+        int offset = SuppressEdit.getInsertOffset(new DocumentLineScanner(document), modifiers.getTextRange().getStartOffset());
+        if (suppress == null)
+            return new TestDescriptor(method.getName(), offset, -1);
+        //the annotation can have arguments or a qualified name, so its whole range is deleted
+        return new TestDescriptor(method.getName(), offset, suppress.getStartOffset(), suppress.getEndOffset());
+    }
+
+    /** @return the name of the annotation without its package */
+    private static String getSimpleName(PsiAnnotation annotation) {
+        PsiJavaCodeReferenceElement reference = annotation.getNameReferenceElement();
+        return reference != null ? reference.getReferenceName() : null;
+    }
+}
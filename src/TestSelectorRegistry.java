@@ -0,0 +1,66 @@
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * The selectors of every registered provider
+ * Each selector is created once and reused every time its kind of tests is shown
+ */
+public class TestSelectorRegistry {
+
+    private final TestListModel tests_model;
+    private final HintTextField search_field;
+    private final Project project;
+    private final List<TestSelectorProvider> providers;
+    private final Map<String, TestSelector> selectors = new HashMap<>();
+
+    public TestSelectorRegistry(TestListModel tests_model, HintTextField search_field, Project project) {
+        this.tests_model = tests_model;
+        this.search_field = search_field;
+        this.project = project;
+        this.providers = Collections.unmodifiableList(Arrays.asList(TestSelectorProvider.EP_NAME.getExtensions()));
+    }
+
+    public List<TestSelectorProvider> getProviders() {
+        return providers;
+    }
+
+    public synchronized TestSelector getSelector(TestSelectorProvider provider) {
+        return selectors.computeIfAbsent(provider.getName(),
+                name -> provider.createSelector(tests_model, search_field, project));
+    }
+
+    /**
+     * Picks the selector for a file by running the checks of all providers at the same time
+     * When the file mixes kinds of tests a selector that finds all of them is returned
+     * @param file the file, null if the document has no file
+     * @param text the text of the file
+     * @return the selector, the one of the first provider when no provider matches
+     */
+    public TestSelector detect(VirtualFile file, CharSequence text) {
+        List<TestSelectorProvider> matching = providers.parallelStream()
+                .filter(provider -> provider.matches(file, text))
+                .collect(Collectors.toList());
+        if (matching.isEmpty())
+            return getSelector(providers.get(0));
+        //providers of the same kind of tests share their parser
+        Map<Class<?>, TestSelector> kinds = new LinkedHashMap<>();
+        for (TestSelectorProvider provider : matching) {
+            TestSelector selector = getSelector(provider);
+            kinds.putIfAbsent(selector.getClass(), selector);
+        }
+        if (kinds.size() == 1)
+            return kinds.values().iterator().next();
+        return getMixedSelector(new ArrayList<>(kinds.values()));
+    }
+
+    private synchronized TestSelector getMixedSelector(List<TestSelector> kinds) {
+        StringBuilder key = new StringBuilder();
+        for (TestSelector selector : kinds)
+            key.append(selector.getClass().getName()).append('+');
+        return selectors.computeIfAbsent(key.toString(),
+                name -> new TestSelectorMixed(tests_model, search_field, project, kinds));
+    }
+}
@@ -0,0 +1,309 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact list of tests, for lists of tens of thousands of tests like the catalog of a whole project
+ * A test is only an int, its position. Names are split at the last dot, the class part is interned
+ * and the method part is packed with the others in a single byte pool, the rest is kept in primitive arrays
+ * Method names with chars past Latin-1 can't be packed, they are kept as strings on the side
+ * Tests can only be added, so a table that is no longer added to can be read from any thread
+ * Doesn't depend on the IDE, so it can be used headless
+ */
+public class TestTable {
+
+    private final Map<String, Integer> class_ids = new HashMap<>();
+    private String[] classes = new String[4];
+    private int class_count = 0;
+
+    private byte[] pool = new byte[256];
+    private int pool_size = 0;
+    //the method part of test k is pool[starts[k]..starts[k + 1]], empty when it's one of the wide names
+    private int[] starts = new int[17];
+    private int[] class_of = new int[16];
+    private int[] offsets = new int[16];
+    private int[] suppress_offsets = new int[16];
+    private int size = 0;
+    private Map<Integer, String> wide_names;
+
+    //open addressing table from the hash of a name to its test + 1, 0 is an empty slot
+    private int[] slots = new int[32];
+
+    public TestTable(){}
+
+    /** @return a table with the tests in the same order */
+    public static TestTable of(List<TestDescriptor> tests){
+        TestTable table = new TestTable();
+        for (TestDescriptor test : tests)
+            table.add(test.getName(), test.getOffset(), test.getSuppressOffset());
+        return table.trim();
+    }
+
+    public int size(){
+        return size;
+    }
+
+    /**
+     * @param name the name of the test, Class.test or only test
+     * @param offset the offset where the line declaring the test starts
+     * @param suppress_offset the offset of its @Suppress annotation or -1 if it isn't suppressed
+     * @return the new test
+     */
+    public int add(String name, int offset, int suppress_offset){
+        int dot = name.lastIndexOf('.');
+        int class_id = getClassId(dot < 0 ? "" : name.substring(0, dot));
+        boolean is_latin = true;
+        for (int i = dot + 1; i < name.length() && is_latin; i++)
+            is_latin = name.charAt(i) <= 0xFF;
+        if (!is_latin)
+            return addWide(class_id, name.substring(dot + 1), offset, suppress_offset);
+        int test = append(class_id, name.length() - dot - 1, offset, suppress_offset);
+        for (int i = dot + 1, k = starts[test]; i < name.length(); i++, k++)
+            pool[k] = (byte) name.charAt(i);
+        index(test);
+        return test;
+    }
+
+    /** Adds a test of another table without building its name */
+    public int add(TestTable other, int test){
+        int class_id = getClassId(other.classes[other.class_of[test]]);
+        String wide_name = other.getWideName(test);
+        if (wide_name != null)
+            return addWide(class_id, wide_name, other.offsets[test], other.suppress_offsets[test]);
+        int length = other.starts[test + 1] - other.starts[test];
+        int added = append(class_id, length, other.offsets[test], other.suppress_offsets[test]);
+        System.arraycopy(other.pool, other.starts[test], pool, starts[added], length);
+        index(added);
+        return added;
+    }
+
+    private int addWide(int class_id, String method, int offset, int suppress_offset){
+        int test = append(class_id, 0, offset, suppress_offset);
+        if (wide_names == null)
+            wide_names = new HashMap<>();
+        wide_names.put(test, method);
+        index(test);
+        return test;
+    }
+
+    /** Makes room for a test whose method part is length bytes long, the bytes are left to the caller */
+    private int append(int class_id, int length, int offset, int suppress_offset){
+        if (size == class_of.length) {
+            int capacity = Math.max(size * 2, 16);
+            starts = Arrays.copyOf(starts, capacity + 1);
+            class_of = Arrays.copyOf(class_of, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            suppress_offsets = Arrays.copyOf(suppress_offsets, capacity);
+        }
+        if (pool_size + length > pool.length)
+            pool = Arrays.copyOf(pool, Math.max(pool.length * 2, pool_size + length));
+        int test = size++;
+        class_of[test] = class_id;
+        offsets[test] = offset;
+        suppress_offsets[test] = suppress_offset;
+        pool_size += length;
+        starts[size] = pool_size;
+        return test;
+    }
+
+    /** Drops the room left for more tests, once no more tests are going to be added */
+    public TestTable trim(){
+        pool = Arrays.copyOf(pool, pool_size);
+        starts = Arrays.copyOf(starts, size + 1);
+        class_of = Arrays.copyOf(class_of, size);
+        offsets = Arrays.copyOf(offsets, size);
+        suppress_offsets = Arrays.copyOf(suppress_offsets, size);
+        return this;
+    }
+
+    private int getClassId(String class_name){
+        Integer id = class_ids.get(class_name);
+        if (id != null)
+            return id;
+        if (class_count == classes.length)
+            classes = Arrays.copyOf(classes, class_count * 2);
+        classes[class_count] = class_name;
+        class_ids.put(class_name, class_count);
+        return class_count++;
+    }
+
+    /** @return the name the test was added with, a new string on every call */
+    public String getName(int test){
+        return createView().set(test).toString();
+    }
+
+    /** @return the name of the test method, without the class */
+    public String getMethodName(int test){
+        String wide_name = getWideName(test);
+        if (wide_name != null)
+            return wide_name;
+        char[] method = new char[starts[test + 1] - starts[test]];
+        for (int i = 0; i < method.length; i++)
+            method[i] = (char) (pool[starts[test] + i] & 0xFF);
+        return new String(method);
+    }
+
+    /** @return the class part of the name, empty if the name had none */
+    public String getClassName(int test){
+        return classes[class_of[test]];
+    }
+
+    /** @return the id of the class, tests of the same class have the same one */
+    public int getClassId(int test){
+        return class_of[test];
+    }
+
+    public int getClassCount(){
+        return class_count;
+    }
+
+    public int getOffset(int test){
+        return offsets[test];
+    }
+
+    public int getSuppressOffset(int test){
+        return suppress_offsets[test];
+    }
+
+    public boolean isSuppressed(int test){
+        return suppress_offsets[test] >= 0;
+    }
+
+    public TestDescriptor getTest(int test){
+        return new TestDescriptor(getName(test), offsets[test], suppress_offsets[test]);
+    }
+
+    /** @return the first test with the name or -1 if there is none */
+    public int indexOf(String name){
+        int mask = slots.length - 1;
+        NameView view = createView();
+        for (int slot = mix(name.hashCode()) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            if (view.set(slots[slot] - 1).contentEquals(name))
+                return slots[slot] - 1;
+        }
+        return -1;
+    }
+
+    /**
+     * @return a view of the name of a test that is pointed at another test by set, so a search doesn't build every name
+     * Every thread needs its own view
+     */
+    public NameView createView(){
+        return new NameView();
+    }
+
+    /** @return about how many bytes the table takes in memory */
+    public long getBytes(){
+        long bytes = 16L * 5 + slots.length * 4L + pool.length
+                + (starts.length + class_of.length + offsets.length + suppress_offsets.length) * 4L;
+        //each class is a string plus an entry of the map interning it
+        for (int k = 0; k < class_count; k++)
+            bytes += 40 + classes[k].length() + 48;
+        if (wide_names != null) {
+            for (String method : wide_names.values())
+                bytes += 40 + method.length() * 2L + 48;
+        }
+        return bytes;
+    }
+
+    private String getWideName(int test){
+        if (wide_names == null || starts[test] != starts[test + 1])
+            return null;
+        return wide_names.get(test);
+    }
+
+    private static int mix(int hash){
+        return hash ^ (hash >>> 16);
+    }
+
+    /** Makes the test found by indexOf, all the tests are put again when the slots have to grow */
+    private void index(int test){
+        NameView name = createView();
+        NameView other = createView();
+        if (size * 2 <= slots.length) {
+            putSlot(name.set(test), other);
+            return;
+        }
+        slots = new int[slots.length * 2];
+        for (int k = 0; k <= test; k++)
+            putSlot(name.set(k), other);
+    }
+
+    /** Keeps the first test of every name, like indexOf of a list */
+    private void putSlot(NameView name, NameView other){
+        int mask = slots.length - 1;
+        for (int slot = mix(name.hash()) & mask; ; slot = (slot + 1) & mask) {
+            if (slots[slot] == 0) {
+                slots[slot] = name.test + 1;
+                return;
+            }
+            if (other.set(slots[slot] - 1).contentEquals(name))
+                return;
+        }
+    }
+
+    /** The name of a test as a char sequence that is reused for every test */
+    public class NameView implements CharSequence {
+        private int test;
+        private String class_name = "";
+        private String wide_name;
+        private int prefix = 0;
+        private int start = 0;
+        private int length = 0;
+
+        private NameView(){}
+
+        /** Points the view at the name of the test */
+        public NameView set(int test){
+            this.test = test;
+            class_name = classes[class_of[test]];
+            wide_name = getWideName(test);
+            prefix = class_name.isEmpty() ? 0 : class_name.length() + 1;
+            start = starts[test];
+            length = prefix + (wide_name != null ? wide_name.length() : starts[test + 1] - start);
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index >= prefix)
+                return wide_name != null ? wide_name.charAt(index - prefix) : (char) (pool[start + index - prefix] & 0xFF);
+            return index < class_name.length() ? class_name.charAt(index) : '.';
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        /** @return true if the name has the same chars as the text */
+        public boolean contentEquals(CharSequence text) {
+            if (text.length() != length)
+                return false;
+            for (int i = 0; i < length; i++) {
+                if (charAt(i) != text.charAt(i))
+                    return false;
+            }
+            return true;
+        }
+
+        /** @return the hash code of the name as a string */
+        int hash() {
+            int hash = 0;
+            for (int i = 0; i < length; i++)
+                hash = 31 * hash + charAt(i);
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return new StringBuilder(length).append(this).toString();
+        }
+    }
+}
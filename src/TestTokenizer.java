@@ -0,0 +1,181 @@
+/**
+ * Finds the markers the parsers look for in a line with a single pass over its characters
+ * The markers are the ones the parsers used to find with regular expressions, matched the same way
+ * except that the name of a void method can have any letter or digit, like the name of an espresso test
+ * A tokenizer is reused for every line, so nothing is allocated while scanning
+ * The offsets are indexes of the scanned char sequence, -1 when the marker isn't in the line
+ */
+public class TestTokenizer {
+
+    private int suppress;
+    private int test_annotation;
+    private int method_start;
+    private int method_end;
+    private int public_method_start;
+    private int public_method_end;
+    private int espresso_start;
+    private int espresso_end;
+
+    /**
+     * Scans a line
+     * @param chars the text the line is in
+     * @param start the index where the line starts
+     * @param end the index where the line ends, before its line separator
+     */
+    public void scan(CharSequence chars, int start, int end) {
+        suppress = -1;
+        test_annotation = -1;
+        method_start = -1;
+        method_end = -1;
+        public_method_start = -1;
+        public_method_end = -1;
+        espresso_start = -1;
+        espresso_end = -1;
+        //the last ( right after a word character, where an espresso test name can end
+        int last_call = -1;
+        for (int i = start; i < end; i++) {
+            switch (chars.charAt(i)) {
+                case '@':
+                    if (suppress < 0 && matchesWord(chars, i + 1, end, "suppress"))
+                        suppress = i;
+                    else if (test_annotation < 0 && matchesWord(chars, i + 1, end, "test"))
+                        test_annotation = i;
+                    break;
+                case '(':
+                    if (i > start && isWordChar(chars.charAt(i - 1)))
+                        last_call = i;
+                    break;
+                case 'v':
+                case 'V':
+                    if ((method_start < 0 || public_method_start < 0) && isBoundary(chars, start, i))
+                        matchMethod(chars, start, i, end);
+                    break;
+                case 't':
+                case 'T':
+                    if (espresso_start < 0 && isBoundary(chars, start, i) && matches(chars, i, end, "test_"))
+                        espresso_start = i;
+                    break;
+                default:
+                    break;
+            }
+        }
+        //the name goes up to the last call of the line, like the greedy test_.*( did
+        if (espresso_start >= 0 && last_call >= espresso_start + "test_".length())
+            espresso_end = last_call;
+        else
+            espresso_start = -1;
+    }
+
+    /** @return the index of the @Suppress annotation */
+    public int getSuppress() {
+        return suppress;
+    }
+
+    /** @return the index of the @Test annotation */
+    public int getTestAnnotation() {
+        return test_annotation;
+    }
+
+    /** @return the index where the name of a void method starts */
+    public int getMethodStart() {
+        return method_start;
+    }
+
+    /** @return the index where the name of a void method ends */
+    public int getMethodEnd() {
+        return method_end;
+    }
+
+    /** @return the index where the name of a public void method starts, junit 4 tests have to be public */
+    public int getPublicMethodStart() {
+        return public_method_start;
+    }
+
+    /** @return the index where the name of a public void method ends */
+    public int getPublicMethodEnd() {
+        return public_method_end;
+    }
+
+    /** @return the index where the name of a method starting with test_ starts */
+    public int getEspressoStart() {
+        return espresso_start;
+    }
+
+    /** @return the index where the name of a method starting with test_ ends */
+    public int getEspressoEnd() {
+        return espresso_end;
+    }
+
+    /** Matches void, whitespace, a name, optional whitespace and (, the method is public if public and whitespace come before */
+    private void matchMethod(CharSequence chars, int start, int i, int end) {
+        if (!matches(chars, i, end, "void"))
+            return;
+        int j = i + "void".length();
+        if (j >= end || !isSpace(chars.charAt(j)))
+            return;
+        while (j < end && isSpace(chars.charAt(j)))
+            j++;
+        int name_start = j;
+        while (j < end && isWordChar(chars.charAt(j)))
+            j++;
+        int name_end = j;
+        if (name_end == name_start)
+            return;
+        while (j < end && isSpace(chars.charAt(j)))
+            j++;
+        if (j >= end || chars.charAt(j) != '(')
+            return;
+        if (method_start < 0) {
+            method_start = name_start;
+            method_end = name_end;
+        }
+        if (public_method_start < 0 && isPublic(chars, start, i)) {
+            public_method_start = name_start;
+            public_method_end = name_end;
+        }
+    }
+
+    /** @return true if the word public and whitespace are right before the index */
+    private static boolean isPublic(CharSequence chars, int start, int i) {
+        int j = i;
+        while (j > start && isSpace(chars.charAt(j - 1)))
+            j--;
+        j -= "public".length();
+        return j < i - "public".length() && j >= start && matches(chars, j, i, "public") && isBoundary(chars, start, j);
+    }
+
+    /** @return true if the lowercase text is at the index, ignoring case */
+    private static boolean matches(CharSequence chars, int i, int end, String text) {
+        if (end - i < text.length())
+            return false;
+        for (int k = 0; k < text.length(); k++) {
+            char c = chars.charAt(i + k);
+            if (c >= 'A' && c <= 'Z')
+                c += 'a' - 'A';
+            if (c != text.charAt(k))
+                return false;
+        }
+        return true;
+    }
+
+    /** @return true if the lowercase word is at the index, ignoring case, and isn't followed by more word characters */
+    private static boolean matchesWord(CharSequence chars, int i, int end, String word) {
+        int after = i + word.length();
+        return matches(chars, i, end, word) && (after == end || !isWordChar(chars.charAt(after)));
+    }
+
+    /** @return true if a word can start at the index */
+    private static boolean isBoundary(CharSequence chars, int start, int i) {
+        return i == start || !isWordChar(chars.charAt(i - 1));
+    }
+
+    //the characters of \b, and of the names of the tests
+    private static boolean isWordChar(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+
+    //the characters of \s
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,29 @@
+/**
+ * Parser working on the markers found by a TestTokenizer
+ * Parsing the lines of a text in place allocates nothing but the names of the tests found
+ */
+public abstract class TokenTestParser implements TestParser {
+
+    private final TestTokenizer tokenizer = new TestTokenizer();
+
+    @Override
+    public TestDescriptor parseLine(CharSequence line, int offset) {
+        tokenizer.scan(line, 0, line.length());
+        return parseTokens(tokenizer, line, offset, offset);
+    }
+
+    @Override
+    public TestDescriptor parseLine(CharSequence chars, int start, int end) {
+        tokenizer.scan(chars, start, end);
+        return parseTokens(tokenizer, chars, start, 0);
+    }
+
+    /**
+     * @param tokens the markers of the line
+     * @param chars the text the markers are in
+     * @param offset the offset of the document where the line starts
+     * @param shift what has to be added to the index of a marker to get its offset in the document
+     * @return the test declared in the line or null if the line doesn't declare one
+     */
+    protected abstract TestDescriptor parseTokens(TestTokenizer tokens, CharSequence chars, int offset, int shift);
+}
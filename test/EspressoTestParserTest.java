@@ -0,0 +1,57 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EspressoTestParserTest {
+
+    private static List<TestDescriptor> parse(String text) {
+        return TestDiscovery.findTests(new LineScanner(text), new EspressoTestParser(), null);
+    }
+
+    @Test
+    public void findsTheMethodsNamedTest_() throws IOException {
+        String text = Fixtures.read(Fixtures.LOGIN);
+        LineScanner scanner = new LineScanner(text);
+        List<TestDescriptor> found = parse(text);
+
+        assertEquals(3, found.size());
+        assertEquals("test_login_with_valid_user", found.get(0).getName());
+        assertEquals("test_login_with_wrong_password", found.get(1).getName());
+        assertEquals("test_logout", found.get(2).getName());
+        for (TestDescriptor test : found) {
+            String line = scanner.getLine(scanner.getLineNumber(test.getOffset())).toString();
+            assertEquals(scanner.getLineStartOffset(scanner.getLineNumber(test.getOffset())), test.getOffset());
+            assertTrue(line, line.contains("public void " + test.getName() + "()"));
+        }
+    }
+
+    @Test
+    public void findsTheSuppressAnnotationRightAbove() throws IOException {
+        String text = Fixtures.read(Fixtures.LOGIN);
+        List<TestDescriptor> found = parse(text);
+
+        TestDescriptor suppressed = Fixtures.find(found, "test_login_with_wrong_password");
+        assertTrue(suppressed.isSuppressed());
+        assertTrue(text.startsWith("@Suppress", suppressed.getSuppressOffset()));
+        assertFalse(Fixtures.find(found, "test_login_with_valid_user").isSuppressed());
+        assertFalse(Fixtures.find(found, "test_logout").isSuppressed());
+    }
+
+    @Test
+    public void forgetsTheSuppressAnnotationOfAnotherLine() {
+        List<TestDescriptor> found = parse("    @Suppress\n    private int count;\n    public void test_a() {\n    }\n");
+
+        assertEquals(1, found.size());
+        assertFalse(found.get(0).isSuppressed());
+    }
+
+    @Test
+    public void ignoresJUnitTests() throws IOException {
+        assertTrue(parse(Fixtures.read(Fixtures.CART)).isEmpty());
+    }
+}
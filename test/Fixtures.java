@@ -0,0 +1,53 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The sources under testData the tests read, the tests run from the module directory
+ * LOGIN has espresso tests and CART has junit tests, each with suppressed ones
+ * MULTI_LINE has junit tests whose signatures are split over several lines, it's kept out of SOURCES
+ */
+public class Fixtures {
+
+    public static final Path SOURCES = Paths.get("testData", "src");
+    public static final String LOGIN = "com/example/login/LoginEspressoTest.java";
+    public static final String CART = "com/example/cart/CartTest.java";
+    public static final Path MULTI_LINE = Paths.get("testData", "psi", "com", "example", "cart", "CheckoutTest.java");
+
+    private Fixtures(){}
+
+    public static String read(String path) throws IOException {
+        return read(SOURCES.resolve(path));
+    }
+
+    public static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+    /** Copies every source to the directory, keeping their packages, so they can be edited */
+    public static void copySources(Path to) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(SOURCES)) {
+            files = walk.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            Path copy = to.resolve(SOURCES.relativize(file).toString());
+            Files.createDirectories(copy.getParent());
+            Files.copy(file, copy);
+        }
+    }
+
+    /** @return the test with the name or null if there isn't one */
+    public static TestDescriptor find(List<TestDescriptor> found, String name) {
+        for (TestDescriptor test : found) {
+            if (test.getName().equals(name))
+                return test;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,94 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JUnitTestParserTest {
+
+    private static List<TestDescriptor> parse(String text) {
+        return TestDiscovery.findTests(new LineScanner(text), new JUnitTestParser(), null);
+    }
+
+    private static List<TestDescriptor> parseJUnit5(String text) {
+        return TestDiscovery.findTests(new LineScanner(text), new JUnitTestParser(true), null);
+    }
+
+    //annotated methods junit 4 doesn't run as tests, and a junit 4 test with two spaces
+    private static final String HELPERS = "    @Test\n    public void runs() {\n    }\n"
+            + "    @Test\n    static void staticHelper() {\n    }\n"
+            + "    @Test\n    private void privateHelper() {\n    }\n"
+            + "    @Test\n    public static void publicStatic() {\n    }\n"
+            + "    @Test\n    void packagePrivate() {\n    }\n"
+            + "    @Test\n    PUBLIC  void alsoRuns() {\n    }\n";
+
+    @Test
+    public void findsTheMethodsAnnotatedWithTest() throws IOException {
+        List<TestDescriptor> found = parse(Fixtures.read(Fixtures.CART));
+
+        assertEquals(3, found.size());
+        assertEquals("addsItem", found.get(0).getName());
+        assertEquals("removesItem", found.get(1).getName());
+        assertEquals("emptiesCart", found.get(2).getName());
+        //junit 4 tests have to be public
+        assertNull(Fixtures.find(found, "totalIsZeroWhenEmpty"));
+        assertNull(Fixtures.find(found, "helper"));
+    }
+
+    @Test
+    public void junit4OnlyFindsPublicVoidMethods() {
+        List<TestDescriptor> found = parse(HELPERS);
+
+        assertEquals(2, found.size());
+        assertEquals("runs", found.get(0).getName());
+        assertEquals("alsoRuns", found.get(1).getName());
+    }
+
+    @Test
+    public void junit5FindsVoidMethodsOfAnyVisibility() throws IOException {
+        assertEquals(6, parseJUnit5(HELPERS).size());
+
+        List<TestDescriptor> found = parseJUnit5(Fixtures.read(Fixtures.CART));
+        assertEquals(4, found.size());
+        assertEquals("totalIsZeroWhenEmpty", found.get(3).getName());
+        assertNull(Fixtures.find(found, "helper"));
+    }
+
+    @Test
+    public void junit5TestsAreFoundInFilesImportingJupiter() throws IOException {
+        String text = Fixtures.read(Fixtures.CART);
+        assertEquals(3, TestDiscovery.findAllTests(new LineScanner(text)).size());
+
+        String jupiter = text.replace("import org.junit.Test;", "import org.junit.jupiter.api.Test;");
+        assertEquals(4, TestDiscovery.findAllTests(new LineScanner(jupiter)).size());
+    }
+
+    @Test
+    public void findsTheSuppressAnnotationAboveTest() throws IOException {
+        String text = Fixtures.read(Fixtures.CART);
+        List<TestDescriptor> found = parse(text);
+
+        TestDescriptor removes = Fixtures.find(found, "removesItem");
+        assertTrue(removes.isSuppressed());
+        assertTrue(text.startsWith("@Suppress(\"flaky on CI\")", removes.getSuppressOffset()));
+        TestDescriptor empties = Fixtures.find(found, "emptiesCart");
+        assertTrue(empties.isSuppressed());
+        assertTrue(text.startsWith("@Suppress()", empties.getSuppressOffset()));
+        assertFalse(Fixtures.find(found, "addsItem").isSuppressed());
+    }
+
+    @Test
+    public void ignoresEspressoTests() throws IOException {
+        assertTrue(parse(Fixtures.read(Fixtures.LOGIN)).isEmpty());
+    }
+
+    @Test
+    public void findsBothKindsOfTests() throws IOException {
+        assertEquals(3, TestDiscovery.findAllTests(new LineScanner(Fixtures.read(Fixtures.LOGIN))).size());
+        assertEquals(3, TestDiscovery.findAllTests(new LineScanner(Fixtures.read(Fixtures.CART))).size());
+    }
+}
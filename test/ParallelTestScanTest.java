@@ -0,0 +1,86 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/** The chunked scan must find exactly what the sequential scan finds, wherever the chunks split the text */
+public class ParallelTestScanTest {
+
+    //declarations split over several lines, so that every kind of line ends up right before a chunk boundary
+    private static final String[] BLOCKS = {
+            "    @Suppress\n    public void test_a%d() {\n    }\n",
+            "    @Test\n    public void junit%d() {\n    }\n",
+            "    @Suppress(\"flaky\")\r\n    @Test\r\n    public void suppressed%d() {\r\n    }\r\n",
+            "    @Test\n\n    public void notATest%d() {\n    }\n",
+            "    @Suppress\n    private int field%d;\n    public void test_b%d() {}\n",
+            "    @Test\n    // a comment between the annotation and the method\n    void junit5_%d() {\n    }\n",
+            "    public void test_c%d() { helper(); }\n",
+            "    @Suppress @Test public void inline%d() {}\n",
+    };
+
+    private static String generate(int blocks) {
+        StringBuilder text = new StringBuilder("package com.example;\n\npublic class GeneratedTest {\n");
+        for (int k = 0; k < blocks; k++)
+            text.append(String.format(BLOCKS[k * 7 % BLOCKS.length], k, k));
+        return text.append("}").toString();
+    }
+
+    private static void assertSameTests(String text, Supplier<TestParser> parsers, int chunks) {
+        List<TestDescriptor> expected = TestDiscovery.findTests(new LineScanner(text), parsers.get(), null);
+        List<TestDescriptor> actual = ParallelTestScan.findTests(text, parsers, chunks, null);
+        assertEquals(chunks + " chunks", describe(expected), describe(actual));
+    }
+
+    private static String describe(List<TestDescriptor> tests) {
+        StringBuilder description = new StringBuilder();
+        for (TestDescriptor test : tests)
+            description.append(test.getName()).append(' ').append(test.getOffset()).append(' ').append(test.getSuppressOffset()).append('\n');
+        return description.toString();
+    }
+
+    @Test
+    public void matchesTheSequentialScanAtEveryBoundary() {
+        String text = generate(40);
+        int lines = new LineScanner(text).getLineCount();
+        //with as many chunks as lines a boundary falls between every two lines
+        for (int chunks = 2; chunks <= lines + 5; chunks++) {
+            assertSameTests(text, EspressoTestParser::new, chunks);
+            assertSameTests(text, JUnitTestParser::new, chunks);
+            assertSameTests(text, () -> new JUnitTestParser(true), chunks);
+        }
+    }
+
+    @Test
+    public void matchesTheSequentialScanWithATrailingLineSeparator() {
+        String text = generate(25) + "\r\n";
+        for (int chunks = 2; chunks <= 16; chunks++) {
+            assertSameTests(text, EspressoTestParser::new, chunks);
+            assertSameTests(text, JUnitTestParser::new, chunks);
+        }
+    }
+
+    @Test
+    public void keepsTheSuppressionAcrossABoundary() {
+        String text = "    @Suppress\n    public void test_a() {\n    }\n";
+        //the boundary falls right after the annotation line
+        List<TestDescriptor> found = ParallelTestScan.findTests(text, EspressoTestParser::new, 4, null);
+
+        assertEquals(1, found.size());
+        assertTrue(found.get(0).isSuppressed());
+    }
+
+    @Test
+    public void matchesTheSequentialScanOnTheFixtures() throws IOException {
+        for (String path : new String[] {Fixtures.LOGIN, Fixtures.CART}) {
+            String text = Fixtures.read(path);
+            for (int chunks = 2; chunks <= 8; chunks++) {
+                assertSameTests(text, EspressoTestParser::new, chunks);
+                assertSameTests(text, JUnitTestParser::new, chunks);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ShardPlannerTest {
+
+    private static final List<String> TESTS = Arrays.asList("com.foo.FooTest#a", "com.foo.FooTest#b", "com.foo.FooTest#c",
+            "com.foo.BarTest#d", "com.foo.BarTest#e");
+
+    @Test
+    public void packsTheLongestTestsFirst() {
+        List<ShardPlanner.Shard> shards = ShardPlanner.plan(TESTS, new int[] {50, 40, 30, 20, 10}, 2);
+
+        assertEquals(2, shards.size());
+        //50 + 20 + 10 and 40 + 30, the tests of a shard in the order they were given
+        assertEquals(Arrays.asList("com.foo.FooTest#a", "com.foo.BarTest#d", "com.foo.BarTest#e"), shards.get(0).getTests());
+        assertEquals(80, shards.get(0).getMillis());
+        assertEquals(Arrays.asList("com.foo.FooTest#b", "com.foo.FooTest#c"), shards.get(1).getTests());
+        assertEquals(70, shards.get(1).getMillis());
+        assertEquals(80, ShardPlanner.getMillis(shards));
+    }
+
+    @Test
+    public void everyTestIsInOneShard() {
+        int[] millis = new int[TESTS.size()];
+        List<ShardPlanner.Shard> shards = ShardPlanner.plan(TESTS, millis, 3);
+
+        List<String> planned = new ArrayList<>();
+        for (ShardPlanner.Shard shard : shards)
+            planned.addAll(shard.getTests());
+        Collections.sort(planned);
+        List<String> expected = new ArrayList<>(TESTS);
+        Collections.sort(expected);
+        assertEquals(expected, planned);
+    }
+
+    @Test
+    public void neverPlansMoreShardsThanTests() {
+        assertEquals(2, ShardPlanner.plan(TESTS.subList(0, 2), new int[] {1, 1}, 5).size());
+        assertTrue(ShardPlanner.plan(Collections.emptyList(), new int[0], 5).isEmpty());
+        assertTrue(ShardPlanner.plan(TESTS, new int[TESTS.size()], 0).isEmpty());
+    }
+
+    @Test
+    public void writesTheInstrumentationFilter() {
+        assertEquals("com.foo.FooTest#test", ShardPlanner.getMethodFilter("com.foo.FooTest.test"));
+        assertEquals("test", ShardPlanner.getMethodFilter("test"));
+        assertEquals("com.foo.FooTest", ShardPlanner.getClassName("com.foo.FooTest.test"));
+        assertEquals("-e class com.foo.FooTest#a,com.foo.FooTest#b",
+                ShardPlanner.getFilter(Arrays.asList("com.foo.FooTest#a", "com.foo.FooTest#b")));
+    }
+}
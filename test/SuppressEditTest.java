@@ -0,0 +1,124 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SuppressEditTest {
+
+    private static String apply(String text, SuppressEdit edit) {
+        return SuppressEdit.apply(text, Collections.singletonList(edit));
+    }
+
+    private static String delete(String text) {
+        return apply(text, SuppressEdit.delete("test_a", new LineScanner(text), text.indexOf('@')));
+    }
+
+    @Test
+    public void insertAddsALineAboveTheDeclaration() {
+        String text = "    public void test_a() {\n    }\n";
+        SuppressEdit edit = SuppressEdit.insert("test_a", 0);
+
+        assertTrue(edit.isInsert());
+        assertEquals("\t@Suppress\n    public void test_a() {\n    }\n", apply(text, edit));
+    }
+
+    @Test
+    public void insertGoesAboveAMultiLineSignature() throws IOException {
+        String text = Fixtures.read(Fixtures.MULTI_LINE);
+        LineScanner scanner = new LineScanner(text);
+
+        //the syntax tree starts the declarations at their first annotation, after the doc comment
+        int declaration = text.indexOf("@Test", text.indexOf("*/"));
+        String edited = apply(text, SuppressEdit.insert("paysWithCard", SuppressEdit.getInsertOffset(scanner, declaration), "\r\n"));
+        assertTrue(edited, edited.contains("     */\r\n\t@Suppress\r\n    @Test\r\n    public void\r\n    paysWithCard() {"));
+
+        declaration = text.indexOf("@Test public");
+        edited = apply(text, SuppressEdit.insert("refundsPayment", SuppressEdit.getInsertOffset(scanner, declaration), "\r\n"));
+        assertTrue(edited, edited.contains("\t@Suppress\r\n    @Test public\r\n    void refundsPayment(\r\n"));
+    }
+
+    @Test
+    public void deleteRemovesTheLineOfTheAnnotation() {
+        assertEquals("    public void test_a() {}\n", delete("    @Suppress\n    public void test_a() {}\n"));
+        assertEquals("    public void test_a() {}\r\n", delete("    @Suppress\r\n    public void test_a() {}\r\n"));
+    }
+
+    @Test
+    public void deleteRemovesTheArguments() {
+        assertEquals("    public void test_a() {}\n", delete("    @Suppress()\n    public void test_a() {}\n"));
+        assertEquals("    public void test_a() {}\n", delete("    @Suppress(\"it (sometimes) fails\")\n    public void test_a() {}\n"));
+        assertEquals("    public void test_a() {}\n", delete("    @Suppress(\n        \"split\")\n    public void test_a() {}\n"));
+    }
+
+    @Test
+    public void deleteRemovesTheQualifiedName() {
+        assertEquals("    @Test public void test_a() {}\n",
+                delete("    @android.test.suitebuilder.annotation.Suppress @Test public void test_a() {}\n"));
+    }
+
+    @Test
+    public void deleteKeepsTheRestOfTheLine() {
+        assertEquals("    @Test public void test_a() {}\n", delete("    @Suppress @Test public void test_a() {}\n"));
+        assertEquals("    @Test public void test_a() {}\n", delete("    @Suppress(\"slow\")  @Test public void test_a() {}\n"));
+    }
+
+    @Test
+    public void deleteUsesTheGivenRange() {
+        String text = "    @Suppress(\"slow\")\n    public void test_a() {}\n";
+        SuppressEdit edit = SuppressEdit.delete("test_a", new LineScanner(text), 4, 4 + "@Suppress(\"slow\")".length());
+
+        assertEquals("    public void test_a() {}\n", apply(text, edit));
+    }
+
+    @Test
+    public void selectOnlyEditsTheTestsThatChange() throws IOException {
+        String text = Fixtures.read(Fixtures.CART);
+        LineScanner scanner = new LineScanner(text);
+        List<TestDescriptor> found = TestDiscovery.findAllTests(scanner);
+
+        //addsItem gets suppressed, removesItem unsuppressed and the others stay as they are
+        List<SuppressEdit> edits = SuppressEdit.select(scanner, found,
+                test -> test.getName().equals("removesItem") || test.getName().equals("totalIsZeroWhenEmpty"));
+        assertEquals(2, edits.size());
+        for (int k = 1; k < edits.size(); k++)
+            assertTrue(edits.get(k - 1).getStart() > edits.get(k).getStart());
+
+        List<TestDescriptor> edited = TestDiscovery.findAllTests(new LineScanner(SuppressEdit.apply(text, edits)));
+        assertTrue(Fixtures.find(edited, "addsItem").isSuppressed());
+        assertFalse(Fixtures.find(edited, "removesItem").isSuppressed());
+        assertTrue(Fixtures.find(edited, "emptiesCart").isSuppressed());
+        //not public, so it's no junit 4 test
+        assertNull(Fixtures.find(edited, "totalIsZeroWhenEmpty"));
+    }
+
+    @Test
+    public void suppressingAndUnsuppressingGivesBackTheText() throws IOException {
+        String text = Fixtures.read(Fixtures.LOGIN);
+        LineScanner scanner = new LineScanner(text);
+        List<TestDescriptor> found = TestDiscovery.findAllTests(scanner);
+
+        String suppressed = SuppressEdit.apply(text, SuppressEdit.select(scanner, found, test -> false));
+        LineScanner suppressed_scanner = new LineScanner(suppressed);
+        List<TestDescriptor> suppressed_found = TestDiscovery.findAllTests(suppressed_scanner);
+        for (TestDescriptor test : suppressed_found)
+            assertTrue(test.getName(), test.isSuppressed());
+
+        String restored = SuppressEdit.apply(suppressed, SuppressEdit.select(suppressed_scanner, suppressed_found,
+                test -> !Fixtures.find(found, test.getName()).isSuppressed()));
+        assertEquals(text, restored);
+    }
+
+    @Test
+    public void annotationEndSkipsParenthesesInLiterals() {
+        String text = "@Suppress(value = \")(\", when = ')') void test_a()";
+
+        assertEquals(text.indexOf(" void"), SuppressEdit.getAnnotationEnd(text, 0));
+        assertEquals("@Suppress".length(), SuppressEdit.getAnnotationEnd("@Suppress\nvoid test_a()", 0));
+    }
+}
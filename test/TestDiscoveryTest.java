@@ -0,0 +1,48 @@
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestDiscoveryTest {
+
+    private static String findPackage(String text) {
+        return TestDiscovery.findPackage(new LineScanner(text));
+    }
+
+    @Test
+    public void findsThePackageAfterALicenseHeader() throws IOException {
+        assertEquals("com.example.login", findPackage(Fixtures.read(Fixtures.LOGIN)));
+    }
+
+    @Test
+    public void findsThePackageAfterLineComments() throws IOException {
+        assertEquals("com.example.cart", findPackage(Fixtures.read(Fixtures.CART)));
+        assertEquals("com.foo", findPackage("// the class of the tests\r\n// another line\r\npackage com.foo;\r\n"));
+    }
+
+    @Test
+    public void findsThePackageWithSpacesAndWithoutSemicolon() {
+        assertEquals("com.foo.bar", findPackage("package com.foo . bar ;\n"));
+        assertEquals("com.foo", findPackage("package com.foo\n\nclass FooTest\n"));
+    }
+
+    @Test
+    public void defaultPackageHasNoName() {
+        assertNull(findPackage("import org.junit.Test;\n\npublic class FooTest {}\n"));
+        assertNull(findPackage("public class FooTest {}\n//package com.foo;\n"));
+        assertNull(findPackage("/* package com.foo; */\npublic class FooTest {}\n"));
+        assertNull(findPackage("packaged;\n"));
+        assertNull(findPackage(""));
+    }
+
+    @Test
+    public void mayContainTestsIgnoresTextsWithoutTests() throws IOException {
+        assertTrue(TestDiscovery.mayContainTests(Fixtures.read(Fixtures.LOGIN)));
+        assertTrue(TestDiscovery.mayContainTests(Fixtures.read(Fixtures.CART)));
+        assertFalse(TestDiscovery.mayContainTests("package com.foo;\n\npublic class Cart {\n}\n"));
+    }
+}
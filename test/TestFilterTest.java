@@ -0,0 +1,53 @@
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestFilterTest {
+
+    @Test
+    public void matchesPlainTextIgnoringCase() {
+        TestFilter filter = TestFilter.compile("Login");
+
+        assertTrue(filter.matches("test_login_with_valid_user"));
+        assertTrue(filter.matches("com.example.LOGINTest.test_a"));
+        assertFalse(filter.matches("test_logout"));
+        assertFalse(filter.matches("Log"));
+    }
+
+    @Test
+    public void emptyQueryMatchesEveryTest() {
+        assertTrue(TestFilter.compile("").matches("test_a"));
+        assertTrue(TestFilter.compile("").matches(""));
+    }
+
+    @Test
+    public void matchesRegularExpressions() {
+        TestFilter filter = TestFilter.compile("^test_(a|b)$");
+
+        assertTrue(filter.matches("test_a"));
+        assertTrue(filter.matches("TEST_B"));
+        assertFalse(filter.matches("test_c"));
+        assertFalse(filter.matches("test_ab"));
+        //a dot is a regular expression, so it matches any char
+        assertTrue(TestFilter.compile("FooTest.test").matches("FooTest_test"));
+    }
+
+    @Test
+    public void incompleteRegularExpressionsAreNull() {
+        assertNull(TestFilter.compile("test_(a|"));
+        assertNull(TestFilter.compile("["));
+    }
+
+    @Test
+    public void matchesNameViews() {
+        TestTable table = new TestTable();
+        table.add("com.foo.FooTest.test_a", 0, -1);
+        TestTable.NameView view = table.createView().set(0);
+
+        assertTrue(TestFilter.compile("footest.TEST").matches(view));
+        assertTrue(TestFilter.compile("fooTEST").matches(view));
+        assertFalse(TestFilter.compile("bar").matches(view));
+    }
+}
@@ -0,0 +1,93 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestHistoryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static TestHistory createHistory() {
+        TestHistory history = new TestHistory();
+        history.record("com.foo.FooTest.slow", 500, false, 1000);
+        history.record("com.foo.FooTest.fast", 100, false, 1000);
+        history.record("com.foo.FooTest.broken", 300, true, 1000);
+        history.record("com.foo.FooTest.medium", 200, false, 1000);
+        return history;
+    }
+
+    @Test
+    public void selectPicksTheFailedTestsFirstThenTheCheapest() {
+        TestHistory history = createHistory();
+
+        //the test that never ran is expected to take as long as the median one, 300 ms
+        assertEquals(Arrays.asList("com.foo.FooTest.broken", "com.foo.FooTest.fast", "com.foo.FooTest.medium"),
+                new ArrayList<>(history.select(Arrays.asList("com.foo.FooTest.slow", "com.foo.FooTest.fast",
+                        "com.foo.FooTest.unknown", "com.foo.FooTest.medium", "com.foo.FooTest.broken"), 700)));
+        assertEquals(1200, history.getExpectedMillis(Arrays.asList("com.foo.FooTest.slow", "com.foo.FooTest.fast",
+                "com.foo.FooTest.unknown", "com.foo.FooTest.broken")));
+    }
+
+    @Test
+    public void selectLeavesOutWhatDoesntFitTheBudget() {
+        TestHistory history = createHistory();
+
+        assertTrue(history.select(Arrays.asList("com.foo.FooTest.slow", "com.foo.FooTest.broken"), 200).isEmpty());
+        //the failed test leaves no room for the slow one
+        assertEquals(Arrays.asList("com.foo.FooTest.broken"),
+                new ArrayList<>(history.select(Arrays.asList("com.foo.FooTest.slow", "com.foo.FooTest.broken"), 500)));
+        assertEquals(Arrays.asList("com.foo.FooTest.slow"),
+                new ArrayList<>(history.select(Arrays.asList("com.foo.FooTest.slow"), 500)));
+    }
+
+    @Test
+    public void olderResultsDontReplaceNewerOnes() {
+        TestHistory history = new TestHistory();
+        history.record("com.foo.FooTest.test", 100, false, 2000);
+        history.record("com.foo.FooTest.test", 900, true, 1000);
+
+        assertEquals(100, history.getMillis("com.foo.FooTest.test"));
+        assertEquals(1000, history.getLastFailure("com.foo.FooTest.test"));
+        assertEquals(2000, history.getNewestReport());
+    }
+
+    @Test
+    public void loadGivesBackWhatWasSaved() throws IOException {
+        TestHistory history = createHistory();
+        //failed before the last run, but recently
+        history.record("com.foo.FooTest.flaky", 120, true, 1000);
+        history.record("com.foo.FooTest.flaky", 150, false, 2000);
+        Path file = folder.getRoot().toPath().resolve("history").resolve("tests.bin");
+        history.save(file);
+
+        TestHistory loaded = TestHistory.load(file);
+        assertEquals(5, loaded.size());
+        assertEquals(2000, loaded.getNewestReport());
+        assertEquals(150, loaded.getMillis("com.foo.FooTest.flaky"));
+        assertEquals(1000, loaded.getLastFailure("com.foo.FooTest.flaky"));
+        assertTrue(loaded.hasFailedRecently("com.foo.FooTest.flaky"));
+        assertTrue(loaded.hasFailedRecently("com.foo.FooTest.broken"));
+        assertFalse(loaded.hasFailedRecently("com.foo.FooTest.fast"));
+        assertEquals(500, loaded.getMillis("com.foo.FooTest.slow"));
+        assertEquals(-1, loaded.getMillis("com.foo.FooTest.unknown"));
+    }
+
+    @Test
+    public void loadIgnoresMissingAndForeignFiles() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("tests.bin");
+        assertEquals(0, TestHistory.load(file).size());
+
+        Files.write(file, new byte[] {'T', 'S', 'H', '0', 0, 0, 0, 1});
+        assertEquals(0, TestHistory.load(file).size());
+    }
+}
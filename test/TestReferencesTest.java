@@ -0,0 +1,78 @@
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestReferencesTest {
+
+    private static final String TEST_CLASS = "package com.example.cart;\n"
+            + "\n"
+            + "import org.junit.Test;\n"
+            + "import com.example.pay.Wallet;\n"
+            + "import com.example.shop.*;\n"
+            + "import static com.example.Assert.check;\n"
+            + "\n"
+            + "public class CartTest {\n"
+            + "    private final Cart cart = new Cart();\n"
+            + "\n"
+            + "    @Test\n"
+            + "    public void paysWithWallet() {\n"
+            + "        new Wallet().pay(cart);\n"
+            + "    }\n"
+            + "\n"
+            + "    @Test\n"
+            + "    public void addsItem() {\n"
+            + "        cart.add(new com.example.shop.Item(), Price.ZERO);\n"
+            + "    }\n"
+            + "}\n";
+
+    @Test
+    public void resolvesTheWayTheCompilerWould() {
+        Map<String, String> imported = new HashMap<>();
+        imported.put("Wallet", "com.example.pay.Wallet");
+        List<String> on_demand = Arrays.asList("com.example.shop", "java.util");
+
+        assertEquals(Collections.singletonList("com.example.pay.Wallet"),
+                TestReferences.resolve("Wallet", "com.example.cart", imported, on_demand));
+        assertEquals(Collections.singletonList("com.example.shop.Item"),
+                TestReferences.resolve("com.example.shop.Item", "com.example.cart", imported, on_demand));
+        //not imported, it's in the package of the file or in a package imported on demand
+        assertEquals(Arrays.asList("com.example.cart.Cart", "com.example.shop.Cart", "java.util.Cart"),
+                TestReferences.resolve("Cart", "com.example.cart", imported, on_demand));
+        assertEquals(Collections.singletonList("Cart"),
+                TestReferences.resolve("Cart", null, imported, Collections.emptyList()));
+    }
+
+    @Test
+    public void findsTheTestsMentioningEachClass() {
+        Map<String, List<String>> found = TestReferences.findReferences(TEST_CLASS, "CartTest");
+
+        assertEquals(Collections.singletonList("com.example.cart.CartTest.paysWithWallet"), found.get("com.example.pay.Wallet"));
+        assertEquals(Collections.singletonList("com.example.cart.CartTest.addsItem"), found.get("com.example.shop.Item"));
+        assertEquals(Collections.singletonList("com.example.cart.CartTest.addsItem"), found.get("com.example.shop.Price"));
+        //the fields come before the first test, every test mentions them
+        assertEquals(Arrays.asList("com.example.cart.CartTest.paysWithWallet", "com.example.cart.CartTest.addsItem"),
+                found.get("com.example.cart.Cart"));
+    }
+
+    @Test
+    public void importsAreNotReferences() {
+        Map<String, List<String>> found = TestReferences.findReferences(TEST_CLASS, "CartTest");
+
+        assertFalse(found.containsKey("com.example.Assert"));
+        assertFalse(found.containsKey("com.example.cart.Assert"));
+        assertTrue(found.containsKey("org.junit.Test"));
+    }
+
+    @Test
+    public void findsNothingInFilesWithoutTests() {
+        assertTrue(TestReferences.findReferences("package com.foo;\n\npublic class Cart {\n    Item item;\n}\n", "Cart").isEmpty());
+    }
+}
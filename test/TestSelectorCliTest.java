@@ -0,0 +1,115 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestSelectorCliTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path root;
+    private String out;
+    private String err;
+
+    @Before
+    public void copySources() throws IOException {
+        root = folder.getRoot().toPath();
+        Fixtures.copySources(root);
+    }
+
+    /** @return the exit code, what was printed is left in out and err */
+    private int run(String... args) {
+        ByteArrayOutputStream out_bytes = new ByteArrayOutputStream();
+        ByteArrayOutputStream err_bytes = new ByteArrayOutputStream();
+        int code = TestSelectorCli.run(args, new PrintStream(out_bytes, true), new PrintStream(err_bytes, true));
+        out = new String(out_bytes.toByteArray(), StandardCharsets.UTF_8);
+        err = new String(err_bytes.toByteArray(), StandardCharsets.UTF_8);
+        return code;
+    }
+
+    private List<TestDescriptor> findTests(String path) throws IOException {
+        return TestDiscovery.findAllTests(new LineScanner(Fixtures.read(root.resolve(path))));
+    }
+
+    @Test
+    public void listsEveryTestByItsQualifiedLabel() {
+        assertEquals(0, run("list", root.toString()));
+
+        assertTrue(out.contains(": com.example.login.LoginEspressoTest.test_login_with_valid_user" + System.lineSeparator()));
+        assertTrue(out.contains(": com.example.login.LoginEspressoTest.test_login_with_wrong_password (suppressed)" + System.lineSeparator()));
+        assertTrue(out.contains(": com.example.cart.CartTest.removesItem (suppressed)" + System.lineSeparator()));
+        assertTrue(err, err.startsWith("6 tests in 2 files, 3 suppressed"));
+    }
+
+    @Test
+    public void listFiltersByTheQuery() {
+        assertEquals(0, run("list", root.toString(), "CartTest.adds"));
+
+        assertEquals(1, out.split(System.lineSeparator()).length);
+        assertTrue(out.contains("com.example.cart.CartTest.addsItem"));
+    }
+
+    @Test
+    public void suppressThenUnsuppressGivesBackTheSources() throws IOException {
+        byte[] original = Files.readAllBytes(root.resolve(Fixtures.LOGIN));
+
+        assertEquals(0, run("suppress", root.toString(), "test_logout"));
+        assertTrue(Fixtures.find(findTests(Fixtures.LOGIN), "test_logout").isSuppressed());
+        assertTrue(err, err.endsWith("1 edited" + System.lineSeparator()));
+
+        assertEquals(0, run("unsuppress", root.toString(), "test_logout"));
+        assertArrayEquals(original, Files.readAllBytes(root.resolve(Fixtures.LOGIN)));
+    }
+
+    @Test
+    public void onlyLeavesTheMatchingTestsToRun() throws IOException {
+        assertEquals(0, run("only", root.toString(), "removesItem|test_logout"));
+
+        for (TestDescriptor test : findTests(Fixtures.CART))
+            assertEquals(test.getName(), !test.getName().equals("removesItem"), test.isSuppressed());
+        for (TestDescriptor test : findTests(Fixtures.LOGIN))
+            assertEquals(test.getName(), !test.getName().equals("test_logout"), test.isSuppressed());
+        //running it again changes nothing
+        assertEquals(0, run("only", root.toString(), "removesItem|test_logout"));
+        assertTrue(err, err.endsWith(", 0 edited" + System.lineSeparator()));
+    }
+
+    @Test
+    public void refusesToRewriteFilesThatArentValidInTheEncoding() throws IOException {
+        Path file = root.resolve(Fixtures.CART);
+        String text = Fixtures.read(file).replace("// This class", "// Caf\u00e9: this class");
+        byte[] latin = text.getBytes(StandardCharsets.ISO_8859_1);
+        Files.write(file, latin);
+
+        assertEquals(1, run("suppress", root.toString(), "addsItem"));
+        assertTrue(err, err.contains("can't edit " + file));
+        assertArrayEquals(latin, Files.readAllBytes(file));
+
+        assertEquals(0, run("--encoding", "ISO-8859-1", "suppress", root.toString(), "addsItem"));
+        String edited = new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1);
+        assertTrue(edited.contains("// Caf\u00e9: this class"));
+        assertTrue(Fixtures.find(TestDiscovery.findAllTests(new LineScanner(edited)), "addsItem").isSuppressed());
+    }
+
+    @Test
+    public void rejectsBadArguments() {
+        assertEquals(2, run("suppress", root.toString()));
+        assertEquals(2, run("--encoding", "no-such-charset", "list", root.toString()));
+        assertEquals(2, run("list", root.toString(), "("));
+        assertFalse(err.isEmpty());
+    }
+}
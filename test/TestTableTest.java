@@ -0,0 +1,94 @@
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestTableTest {
+
+    @Test
+    public void givesBackTheTestsAsTheyWereAdded() {
+        TestTable table = TestTable.of(Arrays.asList(new TestDescriptor("com.foo.FooTest.test_a", 10, -1),
+                new TestDescriptor("com.foo.FooTest.test_b", 40, 30), new TestDescriptor("test_c", 70, -1)));
+
+        assertEquals(3, table.size());
+        assertEquals("com.foo.FooTest.test_b", table.getName(1));
+        assertEquals("test_b", table.getMethodName(1));
+        assertEquals("com.foo.FooTest", table.getClassName(1));
+        assertEquals(40, table.getOffset(1));
+        assertEquals(30, table.getSuppressOffset(1));
+        assertTrue(table.isSuppressed(1));
+        assertFalse(table.isSuppressed(0));
+        assertEquals("test_c", table.getName(2));
+        assertEquals("", table.getClassName(2));
+    }
+
+    @Test
+    public void internsTheClasses() {
+        TestTable table = new TestTable();
+        table.add("com.foo.FooTest.a", 0, -1);
+        table.add("com.foo.BarTest.b", 0, -1);
+        table.add("com.foo.FooTest.c", 0, -1);
+
+        assertEquals(2, table.getClassCount());
+        assertEquals(table.getClassId(0), table.getClassId(2));
+        assertTrue(table.getClassId(0) != table.getClassId(1));
+    }
+
+    @Test
+    public void keepsNamesThatArentLatin1() {
+        TestTable table = new TestTable();
+        table.add("com.foo.FooTest.größe", 0, -1);
+        table.add("com.foo.FooTest.名前", 10, 5);
+
+        assertEquals("com.foo.FooTest.größe", table.getName(0));
+        assertEquals("名前", table.getMethodName(1));
+        assertEquals("com.foo.FooTest.名前", table.getTest(1).getName());
+        assertEquals(5, table.getTest(1).getSuppressOffset());
+        assertEquals(1, table.indexOf("com.foo.FooTest.名前"));
+    }
+
+    @Test
+    public void indexOfFindsTheFirstTestWithTheName() {
+        TestTable table = new TestTable();
+        for (int k = 0; k < 1000; k++)
+            table.add("com.foo.Test" + k % 10 + ".test_" + k, k, -1);
+        table.add("com.foo.Test0.test_0", 5000, -1);
+
+        for (int k = 0; k < 1000; k++)
+            assertEquals(k, table.indexOf("com.foo.Test" + k % 10 + ".test_" + k));
+        assertEquals(-1, table.indexOf("com.foo.Test0.test_1"));
+        assertEquals(-1, table.indexOf("test_0"));
+    }
+
+    @Test
+    public void copiesTestsOfAnotherTable() {
+        TestTable other = new TestTable();
+        other.add("com.foo.FooTest.a", 10, -1);
+        other.add("com.foo.FooTest.名前", 20, 15);
+        TestTable table = new TestTable();
+        table.add("com.foo.BarTest.b", 0, -1);
+
+        table.add(other, 1);
+        table.add(other, 0);
+        assertEquals("com.foo.FooTest.名前", table.getName(1));
+        assertEquals(15, table.getSuppressOffset(1));
+        assertEquals("com.foo.FooTest.a", table.getName(2));
+        assertEquals(2, table.indexOf("com.foo.FooTest.a"));
+    }
+
+    @Test
+    public void viewsMatchTheNames() {
+        TestTable table = TestTable.of(Arrays.asList(new TestDescriptor("com.foo.FooTest.test_a", 0, -1),
+                new TestDescriptor("test_b", 0, -1)));
+        TestTable.NameView view = table.createView();
+
+        assertTrue(view.set(0).contentEquals("com.foo.FooTest.test_a"));
+        assertFalse(view.contentEquals("com.foo.FooTest.test_b"));
+        assertEquals('.', view.charAt("com.foo.FooTest".length()));
+        assertEquals("test_b", view.set(1).toString());
+        assertEquals("est", view.subSequence(1, 4));
+    }
+}
@@ -0,0 +1,138 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+
+/** The parsers working on TestTokenizer must find what the regular expressions they replaced found */
+public class TestTokenizerTest {
+
+    private static final Pattern espresso_pattern = Pattern.compile("\\btest_.*\\b[(]", Pattern.CASE_INSENSITIVE);
+    //\w only has ascii letters, the name of a void method can have any letter or digit like an espresso test
+    private static final Pattern method_pattern = Pattern.compile("\\bvoid\\s+([\\p{L}\\p{Nd}_]+)\\s*[(]", Pattern.CASE_INSENSITIVE);
+    private static final Pattern public_method_pattern = Pattern.compile("\\bpublic\\s+void\\s+([\\p{L}\\p{Nd}_]+)\\s*[(]", Pattern.CASE_INSENSITIVE);
+    private static final Pattern suppress_pattern = Pattern.compile("@Suppress\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern test_annotation_pattern = Pattern.compile("@Test\\b", Pattern.CASE_INSENSITIVE);
+
+    //what the random texts are made of, markers, near misses and non ascii names
+    private static final String[] WORDS = {
+            "@Suppress", "@SUPPRESS", "@Suppressed", "@Suppress(\"flaky\")", "@Test", "@test", "@Tests", "@Test(timeout = 5)",
+            "public", "PUBLIC", "publics", "apublic", "private", "static", "void", "VOID", "avoid", "voids", "test_", "Test_", "atest_", "test_a", "test_größe",
+            "fooÜ", "größe", "名前", "x1", "_", "$", ".", ",", "(", ")", "{", "}", ";", "=", "\"", " ", " ", " ", "\t", "\t"
+    };
+
+    /** The espresso parser as it was before the tokenizer */
+    private static class RegexEspressoParser implements TestParser {
+        private int suppress_offset = -1;
+
+        @Override
+        public TestDescriptor parseLine(CharSequence line, int offset) {
+            Matcher m = espresso_pattern.matcher(line);
+            Matcher suppress_matcher = suppress_pattern.matcher(line);
+            if (suppress_matcher.find()) {
+                suppress_offset = offset + suppress_matcher.start();
+            } else if (m.find()) {
+                String s = m.group();
+                TestDescriptor test = new TestDescriptor(s.substring(0, s.length() - 1), offset, suppress_offset);
+                suppress_offset = -1;
+                return test;
+            } else {
+                suppress_offset = -1;
+            }
+            return null;
+        }
+    }
+
+    /** The junit parser as it was before the tokenizer, junit 4 tests are public and junit 5 ones any void method */
+    private static class RegexJUnitParser implements TestParser {
+        private final Pattern pattern;
+        private int suppress_offset = -1;
+        private boolean is_test = false;
+
+        RegexJUnitParser(boolean is_junit5) {
+            pattern = is_junit5 ? method_pattern : public_method_pattern;
+        }
+
+        @Override
+        public TestDescriptor parseLine(CharSequence line, int offset) {
+            Matcher m = pattern.matcher(line);
+            Matcher suppress_matcher = suppress_pattern.matcher(line);
+            if (suppress_matcher.find()) {
+                suppress_offset = offset + suppress_matcher.start();
+            } else if (test_annotation_pattern.matcher(line).find()) {
+                is_test = true;
+            } else if (m.find() && is_test) {
+                TestDescriptor test = new TestDescriptor(m.group(1), offset, suppress_offset);
+                suppress_offset = -1;
+                is_test = false;
+                return test;
+            } else {
+                suppress_offset = -1;
+            }
+            return null;
+        }
+    }
+
+    private static void assertSameTests(String text, TestParser expected, TestParser actual) {
+        List<TestDescriptor> expected_tests = TestDiscovery.findTests(new LineScanner(text), expected, null);
+        List<TestDescriptor> actual_tests = TestDiscovery.findTests(new LineScanner(text), actual, null);
+        assertEquals(text, describe(expected_tests), describe(actual_tests));
+    }
+
+    private static String describe(List<TestDescriptor> tests) {
+        StringBuilder description = new StringBuilder();
+        for (TestDescriptor test : tests)
+            description.append(test.getName()).append(' ').append(test.getOffset()).append(' ').append(test.getSuppressOffset()).append('\n');
+        return description.toString();
+    }
+
+    private static String randomText(Random random) {
+        StringBuilder text = new StringBuilder();
+        int lines = 1 + random.nextInt(12);
+        for (int line = 0; line < lines; line++) {
+            int words = random.nextInt(10);
+            for (int k = 0; k < words; k++)
+                text.append(WORDS[random.nextInt(WORDS.length)]);
+            text.append(random.nextBoolean() ? "\n" : "\r\n");
+        }
+        return text.toString();
+    }
+
+    @Test
+    public void findsNonAsciiNames() {
+        String junit = "    @Test\n    public void fooÜ() {\n    }\n";
+        List<TestDescriptor> found = TestDiscovery.findTests(new LineScanner(junit), new JUnitTestParser(), null);
+        assertEquals(1, found.size());
+        assertEquals("fooÜ", found.get(0).getName());
+
+        String espresso = "    public void test_größe() {\n    }\n";
+        found = TestDiscovery.findTests(new LineScanner(espresso), new EspressoTestParser(), null);
+        assertEquals(1, found.size());
+        assertEquals("test_größe", found.get(0).getName());
+    }
+
+    @Test
+    public void matchesTheRegularExpressionsOnTheFixtures() throws IOException {
+        for (String path : new String[] {Fixtures.LOGIN, Fixtures.CART}) {
+            String text = Fixtures.read(path);
+            assertSameTests(text, new RegexEspressoParser(), new EspressoTestParser());
+            assertSameTests(text, new RegexJUnitParser(false), new JUnitTestParser());
+            assertSameTests(text, new RegexJUnitParser(true), new JUnitTestParser(true));
+        }
+    }
+
+    @Test
+    public void matchesTheRegularExpressionsOnRandomTexts() {
+        Random random = new Random(19);
+        for (int k = 0; k < 2000; k++) {
+            String text = randomText(random);
+            assertSameTests(text, new RegexEspressoParser(), new EspressoTestParser());
+            assertSameTests(text, new RegexJUnitParser(false), new JUnitTestParser());
+            assertSameTests(text, new RegexJUnitParser(true), new JUnitTestParser(true));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+// This class is a fixture of the TestSelector tests, the tests expect it as it is
+// Its signatures are split over several lines, only the syntax tree finds these tests, so it's kept out of testData/src
+package com.example.cart;
+
+import org.junit.Test;
+
+public class CheckoutTest {
+
+    /**
+     * The name is on the line after the return type
+     */
+    @Test
+    public void
+    paysWithCard() {
+    }
+
+    @Test public
+    void refundsPayment(
+            String reason) {
+    }
+}
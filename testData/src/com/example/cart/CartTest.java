@@ -0,0 +1,33 @@
+// This class is a fixture of the TestSelector tests, the tests expect it as it is
+package com.example.cart;
+
+import org.junit.Test;
+
+public class CartTest {
+
+    private final Cart cart = new Cart();
+
+    @Test
+    public void addsItem() {
+        cart.add("apple");
+    }
+
+    @Suppress("flaky on CI")
+    @Test
+    public void removesItem() {
+        cart.remove("apple");
+    }
+
+    @Suppress()
+    @Test
+    public void emptiesCart() {
+        cart.clear();
+    }
+
+    public void helper() {
+    }
+
+    @Test
+    void totalIsZeroWhenEmpty() {
+    }
+}
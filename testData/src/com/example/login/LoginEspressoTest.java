@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2016 Example. This class is distributed under the MIT license.
+ */
+package com.example.login;
+
+import android.test.ActivityInstrumentationTestCase2;
+import android.test.suitebuilder.annotation.Suppress;
+
+public class LoginEspressoTest extends ActivityInstrumentationTestCase2<LoginActivity> {
+
+    public LoginEspressoTest() {
+        super(LoginActivity.class);
+    }
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        getActivity();
+    }
+
+    public void test_login_with_valid_user() {
+        onView(withId(R.id.login)).perform(click());
+    }
+
+    @Suppress
+    public void test_login_with_wrong_password() {
+        onView(withId(R.id.password)).perform(typeText("wrong"));
+    }
+
+    public void test_logout() {
+        onView(withId(R.id.logout)).perform(click());
+    }
+}